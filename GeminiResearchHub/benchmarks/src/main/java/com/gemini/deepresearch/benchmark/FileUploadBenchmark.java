@@ -0,0 +1,48 @@
+package com.gemini.deepresearch.benchmark;
+
+import com.gemini.deepresearch.service.FileUploadService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks extracting one prompt per line from an uploaded text file,
+ * with every tenth line blank.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileUploadBenchmark {
+
+    @Param({"100", "10000"})
+    private int lineCount;
+    
+    private final FileUploadService fileUploadService = new FileUploadService();
+    
+    private byte[] file;
+    
+    @Setup
+    public void setup() {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < lineCount; i++) {
+            if (i % 10 == 9) {
+                content.append("   \n");
+            } else {
+                content.append("Research prompt ").append(i)
+                        .append(": summarise recent work on topic ").append(i % 37).append('\n');
+            }
+        }
+        file = content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Benchmark
+    public List<String> extractPrompts() throws Exception {
+        return fileUploadService.extractPrompts(new ByteArrayInputStream(file));
+    }
+}
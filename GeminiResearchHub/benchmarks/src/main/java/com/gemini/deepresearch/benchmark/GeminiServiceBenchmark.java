@@ -0,0 +1,72 @@
+package com.gemini.deepresearch.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gemini.deepresearch.service.GeminiService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the Gemini request/response handling around the HTTP call:
+ * building and serializing the request body, and deserializing and
+ * extracting the text from a response, with prompts and results of
+ * different sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeminiServiceBenchmark {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+    
+    @Param({"200", "20000"})
+    private int resultLength;
+    
+    private final GeminiService geminiService = new GeminiService();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    private String prompt;
+    private String responseJson;
+    private Map<String, Object> response;
+    
+    @Setup
+    public void setup() throws Exception {
+        prompt = "Research the history, current state and open problems of " + "x".repeat(resultLength / 10);
+        
+        Map<String, Object> body = Map.of(
+                "candidates", List.of(Map.of(
+                        "content", Map.of(
+                                "role", "model",
+                                "parts", List.of(Map.of("text", "r".repeat(resultLength)))),
+                        "finishReason", "STOP")),
+                "usageMetadata", Map.of("promptTokenCount", 42, "candidatesTokenCount", resultLength / 4));
+        responseJson = objectMapper.writeValueAsString(body);
+        response = objectMapper.readValue(responseJson, MAP_TYPE);
+    }
+    
+    @Benchmark
+    public Map<String, Object> buildRequest() {
+        return geminiService.buildRequestBody(prompt);
+    }
+    
+    @Benchmark
+    public String buildAndSerializeRequest() throws Exception {
+        return objectMapper.writeValueAsString(geminiService.buildRequestBody(prompt));
+    }
+    
+    @Benchmark
+    public String extractText() {
+        return geminiService.extractTextFromResponse(response);
+    }
+    
+    @Benchmark
+    public String parseAndExtractText() throws Exception {
+        return geminiService.extractTextFromResponse(objectMapper.readValue(responseJson, MAP_TYPE));
+    }
+}
@@ -0,0 +1,63 @@
+package com.gemini.deepresearch.benchmark;
+
+import com.gemini.deepresearch.dto.PromptResponse;
+import com.gemini.deepresearch.model.Prompt;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmarks mapping prompt entities to response DTOs, both for a single
+ * prompt and for a page of prompts as returned by the list endpoints.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromptMappingBenchmark {
+
+    @Param({"100"})
+    private int pageSize;
+    
+    private Prompt prompt;
+    private List<Prompt> page;
+    
+    @Setup
+    public void setup() {
+        page = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            page.add(Prompt.builder()
+                    .id((long) i)
+                    .content("Research prompt number " + i)
+                    .result("Result text for prompt " + i)
+                    .status(Prompt.PromptStatus.COMPLETED)
+                    .createdBy("user" + (i % 10) + "@example.com")
+                    .source("WEB")
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .completedAt(LocalDateTime.now())
+                    .notificationEmail("user" + (i % 10) + "@example.com")
+                    .notificationSent(Boolean.TRUE)
+                    .build());
+        }
+        prompt = page.get(0);
+    }
+    
+    @Benchmark
+    public PromptResponse fromEntity() {
+        return PromptResponse.fromEntity(prompt);
+    }
+    
+    @Benchmark
+    public List<PromptResponse> fromEntityPage() {
+        return page.stream()
+                .map(PromptResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,47 @@
+package com.gemini.deepresearch.loadtest;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Collects latency samples in nanoseconds and reports percentiles.
+ * Samples are kept exactly (no bucketing); a long[] of a few million
+ * entries is small compared to what a single-box run can produce.
+ */
+class LatencyRecorder {
+
+    private static final double[] PERCENTILES = {50, 90, 95, 99, 99.9};
+    
+    private long[] samples = new long[1024];
+    private int count;
+    
+    synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+    
+    synchronized int count() {
+        return count;
+    }
+    
+    synchronized String summary() {
+        if (count == 0) {
+            return "no samples";
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format(Locale.ROOT, "n=%d", count));
+        for (double percentile : PERCENTILES) {
+            int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+            summary.append(String.format(Locale.ROOT, "  p%s=%.1fms",
+                    percentile % 1 == 0 ? String.valueOf((int) percentile) : String.valueOf(percentile),
+                    sorted[Math.max(index, 0)] / 1_000_000.0));
+        }
+        summary.append(String.format(Locale.ROOT, "  max=%.1fms", sorted[count - 1] / 1_000_000.0));
+        return summary.toString();
+    }
+}
@@ -0,0 +1,346 @@
+package com.gemini.deepresearch.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-to-end load-test driver for a running application.
+ * <p>
+ * Submits prompts at a fixed rate (open loop) through {@code POST /api/prompts},
+ * {@code POST /api/upload/text} and {@code POST /api/templates/apply}, and follows
+ * {@code /api/prompts/events} to see when each prompt completes. At the end it reports
+ * submission latency, end-to-end latency (submission to COMPLETED/ERROR event) and
+ * completed prompts per second.
+ * <p>
+ * Every submission returns the IDs of its prompts, so completion events are matched by ID,
+ * whatever order the application processes prompts in. A completion event that arrives before
+ * the submission response is kept and matched once the response is seen.
+ * <p>
+ * Options:
+ * <pre>
+ *   --base-url=http://localhost:8080   application under test
+ *   --rate=10                          submissions per second
+ *   --duration-s=60                    submission phase length
+ *   --drain-s=300                      how long to wait for outstanding prompts afterwards
+ *   --max-in-flight=64                 concurrent submissions; beyond this submissions are skipped and counted
+ *   --mix=prompt:70,upload:20,template:10
+ *   --upload-lines=10                  prompts per uploaded file
+ * </pre>
+ */
+public class LoadTestDriver {
+
+    private enum Kind {
+        PROMPT,
+        UPLOAD,
+        TEMPLATE
+    }
+
+    private record EarlyEvent(String type, long receivedNanos) {
+    }
+
+    private static final long EARLY_EVENT_TTL_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newCachedThreadPool())
+            .build();
+
+    private final String baseUrl;
+    private final double rate;
+    private final long durationSeconds;
+    private final long drainSeconds;
+    private final int uploadLines;
+    private final Semaphore inFlight;
+    private final Map<Kind, Integer> mix = new LinkedHashMap<>();
+
+    // Guarded by their own lock: an event and the submission response of its prompt may race
+    private final Map<Long, Long> pendingById = new HashMap<>();
+    private final Map<Long, EarlyEvent> earlyEvents = new HashMap<>();
+    private final AtomicLong outstanding = new AtomicLong();
+
+    private final Map<Kind, LatencyRecorder> submitLatency = new ConcurrentHashMap<>();
+    private final Map<Kind, LongAdder> submitFailures = new ConcurrentHashMap<>();
+    private final LatencyRecorder endToEndLatency = new LatencyRecorder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    private volatile long firstCompletionNanos;
+    private volatile long lastCompletionNanos;
+    private Long templateId;
+
+    LoadTestDriver(Options options) {
+        this.baseUrl = options.get("base-url", "http://localhost:8080");
+        this.rate = options.getDouble("rate", 10);
+        this.durationSeconds = options.getLong("duration-s", 60);
+        this.drainSeconds = options.getLong("drain-s", 300);
+        this.uploadLines = options.getInt("upload-lines", 10);
+        this.inFlight = new Semaphore(options.getInt("max-in-flight", 64));
+
+        for (String entry : options.get("mix", "prompt:70,upload:20,template:10").split(",")) {
+            String[] parts = entry.split(":");
+            mix.put(Kind.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(parts[1].trim()));
+        }
+        for (Kind kind : Kind.values()) {
+            submitLatency.put(kind, new LatencyRecorder());
+            submitFailures.put(kind, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadTestDriver(new Options(args)).run();
+    }
+
+    private void run() throws Exception {
+        subscribeToEvents();
+        if (mix.getOrDefault(Kind.TEMPLATE, 0) > 0) {
+            templateId = createTemplate();
+        }
+
+        System.out.printf("Submitting %.1f/s for %ds against %s, mix %s%n", rate, durationSeconds, baseUrl, mix);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        long periodNanos = (long) (1_000_000_000L / rate);
+        scheduler.scheduleAtFixedRate(this::submitOne, 0, periodNanos, TimeUnit.NANOSECONDS);
+        scheduler.scheduleAtFixedRate(this::printProgress, 5, 5, TimeUnit.SECONDS);
+
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        scheduler.shutdownNow();
+
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainSeconds);
+        while (outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+            printProgress();
+            TimeUnit.SECONDS.sleep(1);
+        }
+        report();
+        System.exit(0);
+    }
+
+    private void submitOne() {
+        if (!inFlight.tryAcquire()) {
+            skipped.increment();
+            return;
+        }
+
+        Kind kind = pickKind();
+        long start = System.nanoTime();
+        HttpRequest request;
+        switch (kind) {
+            case UPLOAD:
+                request = uploadRequest();
+                break;
+            case TEMPLATE:
+                request = jsonPost("/api/templates/apply", Map.of(
+                        "templateId", templateId,
+                        "variables", Map.of("topic", "topic " + start % 1000, "aspect", "recent results")));
+                break;
+            default:
+                request = jsonPost("/api/prompts", Map.of(
+                        "content", "Load test research prompt " + UUID.randomUUID(),
+                        "createdBy", "loadtest@example.com"));
+        }
+
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    inFlight.release();
+                    if (error != null || response.statusCode() >= 300) {
+                        submitFailures.get(kind).increment();
+                        return;
+                    }
+                    submitLatency.get(kind).record(System.nanoTime() - start);
+                    track(kind, response.body(), start);
+                });
+    }
+
+    private void track(Kind kind, String body, long start) {
+        try {
+            JsonNode json = objectMapper.readTree(body);
+            if (kind == Kind.UPLOAD) {
+                for (JsonNode id : json.path("promptIds")) {
+                    trackPrompt(id.asLong(), start);
+                }
+            } else if (json.hasNonNull("id")) {
+                trackPrompt(json.get("id").asLong(), start);
+            }
+        } catch (Exception e) {
+            submitFailures.get(kind).increment();
+        }
+    }
+
+    private void trackPrompt(long id, long start) {
+        EarlyEvent early;
+        synchronized (pendingById) {
+            early = earlyEvents.remove(id);
+            if (early == null) {
+                pendingById.put(id, start);
+                outstanding.incrementAndGet();
+                return;
+            }
+        }
+        // Finished before the submission response was handled
+        recordFinished(early.type(), start, early.receivedNanos());
+    }
+
+    private void subscribeToEvents() {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/prompts/events"))
+                .header("Accept", "text/event-stream")
+                .GET()
+                .build();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                .thenAccept(response -> response.body()
+                        .filter(line -> line.startsWith("data:"))
+                        .forEach(line -> onEvent(line.substring(5).trim())))
+                .exceptionally(error -> {
+                    System.err.println("Event stream failed: " + error.getMessage());
+                    return null;
+                });
+    }
+
+    private void onEvent(String data) {
+        JsonNode event;
+        try {
+            event = objectMapper.readTree(data);
+        } catch (Exception e) {
+            return;
+        }
+        String type = event.path("type").asText();
+        if (!"COMPLETED".equals(type) && !"ERROR".equals(type)) {
+            return;
+        }
+
+        long id = event.path("promptId").asLong();
+        long now = System.nanoTime();
+        Long submittedAt;
+        synchronized (pendingById) {
+            submittedAt = pendingById.remove(id);
+            if (submittedAt == null) {
+                // Not one of ours, or a prompt whose submission response has not been handled yet
+                earlyEvents.put(id, new EarlyEvent(type, now));
+                return;
+            }
+            outstanding.decrementAndGet();
+        }
+        recordFinished(type, submittedAt, now);
+    }
+
+    private void recordFinished(String type, long submittedAt, long finishedAt) {
+        endToEndLatency.record(finishedAt - submittedAt);
+        (("COMPLETED".equals(type)) ? completed : failed).increment();
+        if (firstCompletionNanos == 0) {
+            firstCompletionNanos = finishedAt;
+        }
+        lastCompletionNanos = finishedAt;
+    }
+
+    private void pruneEarlyEvents() {
+        // Events of other clients' prompts are never matched; keep them only as long as a response could lag
+        long cutoff = System.nanoTime() - EARLY_EVENT_TTL_NANOS;
+        synchronized (pendingById) {
+            earlyEvents.values().removeIf(early -> early.receivedNanos() < cutoff);
+        }
+    }
+
+    private Long createTemplate() throws Exception {
+        HttpRequest request = jsonPost("/api/templates", Map.of(
+                "name", "Load test template " + UUID.randomUUID(),
+                "templateContent", "Research {{topic}}, focusing on {{aspect}}.",
+                "placeholderFormat", "{{%s}}",
+                "createdBy", "loadtest@example.com",
+                "isPublic", false,
+                "category", "loadtest"));
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("Could not create template: HTTP " + response.statusCode() + " " + response.body());
+        }
+        return objectMapper.readTree(response.body()).get("id").asLong();
+    }
+
+    private HttpRequest uploadRequest() {
+        String boundary = "loadtest" + UUID.randomUUID().toString().replace("-", "");
+        StringBuilder file = new StringBuilder();
+        for (int i = 0; i < uploadLines; i++) {
+            file.append("Load test uploaded prompt ").append(i).append(' ').append(UUID.randomUUID()).append('\n');
+        }
+        String body = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"prompts.txt\"\r\n"
+                + "Content-Type: text/plain\r\n\r\n"
+                + file
+                + "\r\n--" + boundary + "--\r\n";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/upload/text"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private HttpRequest jsonPost(String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Kind pickKind() {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int roll = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<Kind, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        return Kind.PROMPT;
+    }
+
+    private void printProgress() {
+        pruneEarlyEvents();
+        System.out.printf("completed=%d failed=%d outstanding=%d skipped=%d%n",
+                completed.sum(), failed.sum(), outstanding.get(), skipped.sum());
+    }
+
+    private void report() {
+        System.out.println();
+        System.out.println("=== Submission latency ===");
+        for (Kind kind : Kind.values()) {
+            LatencyRecorder recorder = submitLatency.get(kind);
+            if (recorder.count() > 0 || submitFailures.get(kind).sum() > 0) {
+                System.out.printf("%-9s %s  failures=%d%n", kind, recorder.summary(), submitFailures.get(kind).sum());
+            }
+        }
+        System.out.printf("skipped (max in flight reached): %d%n", skipped.sum());
+
+        System.out.println("=== End-to-end latency (submission to COMPLETED/ERROR) ===");
+        System.out.println(endToEndLatency.summary());
+
+        double seconds = (lastCompletionNanos - firstCompletionNanos) / 1_000_000_000.0;
+        System.out.println("=== Throughput ===");
+        System.out.printf("completed=%d failed=%d unfinished=%d throughput=%.2f prompts/s%n",
+                completed.sum(), failed.sum(), outstanding.get(),
+                seconds > 0 ? (completed.sum() + failed.sum()) / seconds : 0.0);
+    }
+}
@@ -0,0 +1,250 @@
+package com.gemini.deepresearch.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for the Gemini generateContent API.
+ * <p>
+ * Serves {@code GET /v1beta/models}, {@code POST /v1beta/models/{model}:generateContent}
+ * and {@code POST /v1beta/models/{model}:streamGenerateContent} (a JSON array, or
+ * server-sent events with {@code ?alt=sse}). Any API key is accepted. Responses are
+ * delayed by a latency drawn from the configured distribution, and a configurable
+ * share of requests fail with 500 or are rejected with 429 and a Retry-After header.
+ * <p>
+ * Options:
+ * <pre>
+ *   --port=9099                  listen port
+ *   --latency=lognormal          fixed | uniform | exponential | lognormal
+ *   --latency-ms=800             fixed value, mean (uniform, exponential) or median (lognormal)
+ *   --latency-spread=0.5         +/- fraction for uniform, sigma for lognormal
+ *   --error-rate=0.01            share of requests answered with 500
+ *   --rate-limit-rate=0.02       share of requests answered with 429
+ *   --retry-after-s=1            Retry-After value sent with 429
+ *   --response-chars=2000        length of the generated text
+ *   --stream-chunks=8            chunks per streamed response
+ * </pre>
+ * Point the application at it with {@code gemini.api.base-url=http://localhost:9099/v1beta}.
+ */
+public class MockGeminiServer {
+
+    private enum Distribution {
+        FIXED,
+        UNIFORM,
+        EXPONENTIAL,
+        LOGNORMAL
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Distribution latency;
+    private final long latencyMs;
+    private final double latencySpread;
+    private final double errorRate;
+    private final double rateLimitRate;
+    private final int retryAfterSeconds;
+    private final int responseChars;
+    private final int streamChunks;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+
+    MockGeminiServer(Options options) {
+        this.latency = parseDistribution(options.get("latency", "lognormal"));
+        this.latencyMs = options.getLong("latency-ms", 800);
+        this.latencySpread = options.getDouble("latency-spread", 0.5);
+        this.errorRate = options.getDouble("error-rate", 0.01);
+        this.rateLimitRate = options.getDouble("rate-limit-rate", 0.02);
+        this.retryAfterSeconds = options.getInt("retry-after-s", 1);
+        this.responseChars = options.getInt("response-chars", 2000);
+        this.streamChunks = Math.max(1, options.getInt("stream-chunks", 8));
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options = new Options(args);
+        int port = options.getInt("port", 9099);
+        MockGeminiServer mock = new MockGeminiServer(options);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        server.createContext("/v1beta/models", mock::handle);
+        // Handlers sleep to simulate latency, so every in-flight request needs its own thread
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        Executors.newSingleThreadScheduledExecutor().scheduleAtFixedRate(mock::printStats, 10, 10, TimeUnit.SECONDS);
+        System.out.printf("Mock Gemini listening on http://127.0.0.1:%d/v1beta (latency=%s %dms, errors=%.3f, 429s=%.3f)%n",
+                port, mock.latency.name().toLowerCase(Locale.ROOT), mock.latencyMs, mock.errorRate, mock.rateLimitRate);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.increment();
+            String path = exchange.getRequestURI().getPath();
+
+            if ("GET".equals(exchange.getRequestMethod()) && path.equals("/v1beta/models")) {
+                sendJson(exchange, 200, Map.of("models", List.of(Map.of("name", "models/gemini-pro"))));
+                return;
+            }
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendJson(exchange, 405, error(405, "Method not allowed"));
+                return;
+            }
+
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            String prompt = request.path("contents").path(0).path("parts").path(0).path("text").asText("");
+
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < rateLimitRate) {
+                rateLimited.increment();
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+                sendJson(exchange, 429, error(429, "Resource has been exhausted (e.g. check quota)."));
+                return;
+            }
+
+            long delayMs = sampleLatencyMs();
+            if (roll < rateLimitRate + errorRate) {
+                errors.increment();
+                sleep(delayMs);
+                sendJson(exchange, 500, error(500, "An internal error has occurred."));
+                return;
+            }
+
+            String text = generateText(prompt);
+            if (path.endsWith(":streamGenerateContent")) {
+                boolean sse = "alt=sse".equals(exchange.getRequestURI().getQuery());
+                stream(exchange, text, prompt, delayMs, sse);
+            } else if (path.endsWith(":generateContent")) {
+                sleep(delayMs);
+                sendJson(exchange, 200, response(text, prompt, text.length(), "STOP"));
+            } else {
+                sendJson(exchange, 404, error(404, "Unknown method: " + path));
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Mock Gemini request failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stream the text in equal chunks, spreading the sampled latency over them.
+     */
+    private void stream(HttpExchange exchange, String text, String prompt, long delayMs, boolean sse) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", sse ? "text/event-stream" : "application/json");
+        exchange.sendResponseHeaders(200, 0);
+
+        OutputStream output = exchange.getResponseBody();
+        int chunkLength = (text.length() + streamChunks - 1) / streamChunks;
+        if (!sse) {
+            output.write('[');
+        }
+        for (int i = 0; i < streamChunks; i++) {
+            sleep(delayMs / streamChunks);
+            int start = Math.min(i * chunkLength, text.length());
+            int end = Math.min(start + chunkLength, text.length());
+            boolean last = i == streamChunks - 1;
+            String json = objectMapper.writeValueAsString(
+                    response(text.substring(start, end), prompt, end, last ? "STOP" : null));
+
+            String frame = sse ? "data: " + json + "\r\n\r\n" : (i > 0 ? ",\r\n" : "") + json;
+            output.write(frame.getBytes(StandardCharsets.UTF_8));
+            output.flush();
+        }
+        if (!sse) {
+            output.write(']');
+        }
+    }
+
+    private Map<String, Object> response(String text, String prompt, int generatedChars, String finishReason) {
+        Map<String, Object> candidate = finishReason != null
+                ? Map.of("content", Map.of("role", "model", "parts", List.of(Map.of("text", text))),
+                        "finishReason", finishReason, "index", 0)
+                : Map.of("content", Map.of("role", "model", "parts", List.of(Map.of("text", text))), "index", 0);
+
+        // Roughly four characters per token, like the real tokenizer on English text
+        int promptTokens = Math.max(1, prompt.length() / 4);
+        int candidateTokens = Math.max(1, generatedChars / 4);
+        return Map.of(
+                "candidates", List.of(candidate),
+                "usageMetadata", Map.of(
+                        "promptTokenCount", promptTokens,
+                        "candidatesTokenCount", candidateTokens,
+                        "totalTokenCount", promptTokens + candidateTokens));
+    }
+
+    private Map<String, Object> error(int code, String message) {
+        String status = code == 429 ? "RESOURCE_EXHAUSTED" : code == 500 ? "INTERNAL" : "INVALID_ARGUMENT";
+        return Map.of("error", Map.of("code", code, "message", message, "status", status));
+    }
+
+    private String generateText(String prompt) {
+        StringBuilder text = new StringBuilder(responseChars + 64);
+        text.append("# Research report\n\nPrompt: ").append(prompt, 0, Math.min(prompt.length(), 200)).append("\n\n");
+        while (text.length() < responseChars) {
+            text.append("Synthetic finding ").append(text.length()).append(" with supporting evidence and sources. ");
+        }
+        text.setLength(Math.max(responseChars, 0));
+        return text.toString();
+    }
+
+    private long sampleLatencyMs() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double value;
+        switch (latency) {
+            case FIXED:
+                value = latencyMs;
+                break;
+            case UNIFORM:
+                value = latencyMs * (1 + latencySpread * (2 * random.nextDouble() - 1));
+                break;
+            case EXPONENTIAL:
+                value = -latencyMs * Math.log(1 - random.nextDouble());
+                break;
+            default:
+                value = latencyMs * Math.exp(latencySpread * random.nextGaussian());
+        }
+        return Math.max(0, Math.round(value));
+    }
+
+    // Fails at startup rather than on every request
+    private static Distribution parseDistribution(String name) {
+        try {
+            return Distribution.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown --latency distribution: " + name
+                    + " (expected fixed, uniform, exponential or lognormal)");
+        }
+    }
+
+    private void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private void printStats() {
+        System.out.printf("requests=%d errors=%d rateLimited=%d%n", requests.sum(), errors.sum(), rateLimited.sum());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
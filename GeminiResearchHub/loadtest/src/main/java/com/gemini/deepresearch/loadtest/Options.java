@@ -0,0 +1,45 @@
+package com.gemini.deepresearch.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Minimal --name=value command line parser shared by the load-test tools.
+ */
+class Options {
+
+    private final Map<String, String> values = new HashMap<>();
+    
+    Options(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                values.put(arg.substring(2), "true");
+            } else {
+                values.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+    }
+    
+    String get(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+    
+    int getInt(String name, int defaultValue) {
+        String value = values.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+    
+    long getLong(String name, long defaultValue) {
+        String value = values.get(name);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+    
+    double getDouble(String name, double defaultValue) {
+        String value = values.get(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+}
@@ -1,5 +1,10 @@
 package com.gemini.deepresearch.config;
 
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -26,9 +31,12 @@ public class AppConfig {
     
     /**
      * Configures a ThreadPoolTaskScheduler for scheduled tasks.
+     * With virtual threads enabled, Spring Boot provides a scheduler that runs
+     * each task on a virtual thread instead.
      * @return A configured ThreadPoolTaskScheduler
      */
     @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
     public ThreadPoolTaskScheduler taskScheduler() {
         ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
         scheduler.setPoolSize(5);
@@ -57,4 +65,15 @@ public class AppConfig {
         
         return mailSender;
     }
-}
\ No newline at end of file
+    
+    /**
+     * Configures an exporter that writes finished spans to the application log,
+     * for inspecting traces without a collector.
+     * @return A logging SpanExporter
+     */
+    @Bean
+    @ConditionalOnProperty(name = "tracing.log-exporter.enabled", havingValue = "true")
+    public SpanExporter loggingSpanExporter() {
+        return LoggingSpanExporter.create();
+    }
+}
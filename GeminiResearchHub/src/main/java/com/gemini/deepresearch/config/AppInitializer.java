@@ -1,10 +1,12 @@
 package com.gemini.deepresearch.config;
 
+import com.gemini.deepresearch.repository.PromptTemplateRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -18,6 +20,9 @@ public class AppInitializer {
 
     @Autowired
     private Environment environment;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     /**
      * CommandLineRunner bean that executes on application startup
@@ -30,6 +35,7 @@ public class AppInitializer {
         return args -> {
             log.info("Application starting...");
             checkRequiredApiKeys();
+            createSearchIndexes();
             log.info("Application initialization complete");
         };
     }
@@ -62,4 +68,35 @@ public class AppInitializer {
             log.warn("Google credentials are missing. Google Sheets import features will not be available.");
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Creates the indexes backing template search, which Hibernate's schema update does not manage.
+     * The full-text index only needs built-in PostgreSQL features; the trigram index on
+     * template names needs the pg_trgm extension and is skipped if it cannot be installed.
+     */
+    private void createSearchIndexes() {
+        executeDdl("CREATE INDEX IF NOT EXISTS idx_prompt_templates_fts ON prompt_templates USING gin ("
+                + PromptTemplateRepository.SEARCH_DOCUMENT + ")");
+        
+        if (executeDdl("CREATE EXTENSION IF NOT EXISTS pg_trgm")) {
+            executeDdl("CREATE INDEX IF NOT EXISTS idx_prompt_templates_name_trgm ON prompt_templates "
+                    + "USING gin (name gin_trgm_ops)");
+        }
+    }
+    
+    /**
+     * Executes a DDL statement, logging a warning instead of failing startup.
+     * 
+     * @param sql The statement
+     * @return true if the statement succeeded, false otherwise
+     */
+    private boolean executeDdl(String sql) {
+        try {
+            jdbcTemplate.execute(sql);
+            return true;
+        } catch (Exception e) {
+            log.warn("Could not execute '{}': {}", sql, e.getMessage());
+            return false;
+        }
+    }
+}
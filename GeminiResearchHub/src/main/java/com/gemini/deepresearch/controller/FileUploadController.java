@@ -33,7 +33,7 @@ public class FileUploadController {
      * @param file The uploaded file
      * @param notificationEmail Email for notifications (optional)
      * @param notificationPhone Phone for notifications (optional)
-     * @return Upload result with the number of prompts created
+     * @return Upload result with the number and IDs of the prompts created
      */
     @PostMapping("/text")
     public ResponseEntity<?> uploadTextFile(
@@ -61,12 +61,13 @@ public class FileUploadController {
             }
             
             // Create batch prompts
-            int count = promptService.createBatchPrompts(prompts, "FILE", notificationEmail, notificationPhone);
+            List<Long> promptIds = promptService.createFilePrompts(prompts, notificationEmail, notificationPhone);
             
             return ResponseEntity.ok(Map.of(
                     "message", "File processed successfully",
                     "fileName", file.getOriginalFilename(),
-                    "promptsCreated", count
+                    "promptsCreated", promptIds.size(),
+                    "promptIds", promptIds
             ));
             
         } catch (Exception e) {
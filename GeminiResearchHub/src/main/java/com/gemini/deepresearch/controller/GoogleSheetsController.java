@@ -1,14 +1,21 @@
 package com.gemini.deepresearch.controller;
 
+import com.gemini.deepresearch.dto.SheetColumnMapping;
+import com.gemini.deepresearch.dto.SheetImportRequest;
+import com.gemini.deepresearch.dto.SheetPrompt;
+import com.gemini.deepresearch.dto.SheetSyncResult;
 import com.gemini.deepresearch.service.ApiConfigService;
 import com.gemini.deepresearch.service.GoogleSheetsService;
 import com.gemini.deepresearch.service.PromptService;
+import com.gemini.deepresearch.service.SheetSyncService;
+import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -29,6 +36,9 @@ public class GoogleSheetsController {
     @Autowired
     private PromptService promptService;
     
+    @Autowired
+    private SheetSyncService sheetSyncService;
+    
     /**
      * Process prompts from a Google Sheet.
      * 
@@ -55,7 +65,7 @@ public class GoogleSheetsController {
         
         try {
             // Read prompts from the sheet
-            List<String> prompts = googleSheetsService.readPromptsFromSheet(spreadsheetId, range);
+            List<SheetPrompt> prompts = googleSheetsService.readSheetPrompts(spreadsheetId, range);
             
             if (prompts.isEmpty()) {
                 return ResponseEntity.badRequest()
@@ -63,7 +73,7 @@ public class GoogleSheetsController {
             }
             
             // Create batch prompts
-            int count = promptService.createBatchPrompts(prompts, "SHEETS", notificationEmail, notificationPhone);
+            int count = promptService.createSheetPrompts(spreadsheetId, prompts, notificationEmail, notificationPhone);
             
             return ResponseEntity.ok(Map.of(
                     "message", "Google Sheet processed successfully",
@@ -72,10 +82,135 @@ public class GoogleSheetsController {
                     "promptsCreated", count
             ));
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             log.error("Error processing Google Sheet: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Error processing Google Sheet: " + e.getMessage()));
         }
     }
+    
+    /**
+     * Import prompts from several ranges of a Google Sheet in one call.
+     * All ranges are fetched with a single values.batchGet request; each range is
+     * then mapped through its column mapping and inserted as its own batch.
+     * The import is not atomic: if inserting a range fails, the ranges before it stay
+     * imported, and the error response lists them with the failed range.
+     * 
+     * @param request The spreadsheet, ranges and column mappings to import
+     * @return Import result with the number of prompts created per range
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importSheetRanges(@Valid @RequestBody SheetImportRequest request) {
+        log.info("Google Sheets import request received for spreadsheet: {}, {} ranges",
+                request.getSpreadsheetId(), request.getRanges().size());
+        
+        if (!apiConfigService.isGoogleSheetsAvailable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Google Sheets integration is not available. Please check your API credentials."));
+        }
+        
+        List<SheetColumnMapping> mappings = request.getRanges();
+        List<List<SheetPrompt>> promptsByRange;
+        try {
+            promptsByRange = googleSheetsService.batchReadSheetPrompts(request.getSpreadsheetId(), mappings);
+        } catch (Exception e) {
+            log.error("Error reading Google Sheet: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Error importing Google Sheet: " + e.getMessage()));
+        }
+        
+        Map<String, Integer> createdByRange = new LinkedHashMap<>();
+        int total = 0;
+        for (int i = 0; i < mappings.size(); i++) {
+            String range = mappings.get(i).getRange();
+            try {
+                int count = promptService.createSheetPrompts(request.getSpreadsheetId(), promptsByRange.get(i),
+                        request.getNotificationEmail(), request.getNotificationPhone());
+                createdByRange.put(range, count);
+                total += count;
+            } catch (Exception e) {
+                log.error("Error importing range {} of Google Sheet after {} prompts: {}", range, total, e.getMessage());
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                        "error", "Error importing Google Sheet range " + range + ": " + e.getMessage(),
+                        "spreadsheetId", request.getSpreadsheetId(),
+                        "failedRange", range,
+                        "promptsCreatedByRange", createdByRange,
+                        "promptsCreated", total
+                ));
+            }
+            promptsByRange.set(i, null);
+        }
+        
+        return ResponseEntity.ok(Map.of(
+                "message", "Google Sheet imported successfully",
+                "spreadsheetId", request.getSpreadsheetId(),
+                "promptsCreatedByRange", createdByRange,
+                "promptsCreated", total
+        ));
+    }
+    
+    /**
+     * Incrementally sync prompts from a Google Sheet.
+     * Only rows appended since the previous sync of the same range are imported.
+     * 
+     * @param spreadsheetId The ID of the spreadsheet
+     * @param range The range of cells to read (e.g., "Sheet1!A2:A")
+     * @param notificationEmail Email for notifications (optional)
+     * @param notificationPhone Phone for notifications (optional)
+     * @param scheduled Whether the range should be polled by the scheduler (optional)
+     * @return Sync result with the number of prompts created
+     */
+    @PostMapping("/sync")
+    public ResponseEntity<?> syncSheetPrompts(
+            @RequestParam("spreadsheetId") String spreadsheetId,
+            @RequestParam("range") String range,
+            @RequestParam(value = "notificationEmail", required = false) String notificationEmail,
+            @RequestParam(value = "notificationPhone", required = false) String notificationPhone,
+            @RequestParam(value = "scheduled", defaultValue = "false") boolean scheduled) {
+        
+        log.info("Google Sheets sync request received for spreadsheet: {}, range: {}", spreadsheetId, range);
+        
+        if (!apiConfigService.isGoogleSheetsAvailable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Google Sheets integration is not available. Please check your API credentials."));
+        }
+        
+        try {
+            SheetSyncResult result = sheetSyncService.registerAndSync(
+                    spreadsheetId, range, notificationEmail, notificationPhone, scheduled);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error syncing Google Sheet: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Error syncing Google Sheet: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Get all registered sheet syncs and their watermarks.
+     * 
+     * @return A list of sync states
+     */
+    @GetMapping("/sync")
+    public ResponseEntity<List<SheetSyncResult>> getSheetSyncs() {
+        log.info("Get sheet syncs request received");
+        return ResponseEntity.ok(sheetSyncService.getAllSyncStates());
+    }
+    
+    /**
+     * Delete a sheet sync, resetting its watermark.
+     * 
+     * @param id The sync state ID
+     * @return No content response
+     */
+    @DeleteMapping("/sync/{id}")
+    public ResponseEntity<Void> deleteSheetSync(@PathVariable Long id) {
+        log.info("Delete sheet sync request received for ID: {}", id);
+        sheetSyncService.deleteSync(id);
+        return ResponseEntity.noContent().build();
+    }
 }
\ No newline at end of file
@@ -2,16 +2,23 @@ package com.gemini.deepresearch.controller;
 
 import com.gemini.deepresearch.dto.PromptRequest;
 import com.gemini.deepresearch.dto.PromptResponse;
+import com.gemini.deepresearch.service.PromptEventHub;
+import com.gemini.deepresearch.service.PromptExportService;
 import com.gemini.deepresearch.service.PromptService;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controller for prompt-related endpoints.
@@ -24,6 +31,12 @@ public class PromptController {
     @Autowired
     private PromptService promptService;
     
+    @Autowired
+    private PromptEventHub promptEventHub;
+    
+    @Autowired
+    private PromptExportService promptExportService;
+    
     /**
      * Create a new research prompt.
      * 
@@ -37,6 +50,25 @@ public class PromptController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
     
+    /**
+     * Subscribe to live prompt events (created, in progress, completed, error) as Server-Sent Events.
+     * 
+     * @param promptId Only receive events of this prompt (optional)
+     * @param includeResults Whether completed events should carry the result
+     * @return The event stream
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToEvents(
+            @RequestParam(required = false) Long promptId,
+            @RequestParam(defaultValue = "false") boolean includeResults) {
+        log.debug("Prompt event subscription received, prompt ID: {}", promptId);
+        SseEmitter emitter = promptEventHub.subscribe(promptId, includeResults);
+        if (emitter == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many event subscribers");
+        }
+        return emitter;
+    }
+    
     /**
      * Get a prompt by its ID.
      * 
@@ -63,6 +95,40 @@ public class PromptController {
         return ResponseEntity.ok(prompts);
     }
     
+    /**
+     * Export all prompts and their results, streamed as NDJSON or CSV.
+     * 
+     * @param format The export format ("ndjson" or "csv")
+     * @param gzip Whether to gzip-compress the export
+     * @return The streamed export
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPrompts(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        
+        log.info("Export prompts request received, format: {}, gzip: {}", format, gzip);
+        
+        PromptExportService.Format exportFormat;
+        try {
+            exportFormat = PromptExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
+        }
+        
+        String fileName = "prompts." + format.toLowerCase() + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : exportFormat == PromptExportService.Format.CSV ? MediaType.parseMediaType("text/csv")
+                : MediaType.parseMediaType("application/x-ndjson");
+        
+        StreamingResponseBody body = outputStream -> promptExportService.export(outputStream, exportFormat, gzip);
+        
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+    
     /**
      * Get all prompts with a specific status.
      * 
@@ -72,8 +138,11 @@ public class PromptController {
     @GetMapping("/status/{status}")
     public ResponseEntity<List<PromptResponse>> getPromptsByStatus(@PathVariable String status) {
         log.info("Get prompts by status request received: {}", status);
-        List<PromptResponse> prompts = promptService.getPromptsByStatus(status);
-        return ResponseEntity.ok(prompts);
+        try {
+            return ResponseEntity.ok(promptService.getPromptsByStatus(status));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown prompt status: " + status);
+        }
     }
     
     /**
@@ -89,4 +158,34 @@ public class PromptController {
                 .map(ResponseEntity::ok)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Prompt not found with ID: " + id));
     }
-}
\ No newline at end of file
+    
+    /**
+     * Move dead-lettered prompts back to the queue with a fresh set of attempts.
+     * 
+     * @param ids The prompts to re-drive (optional, all dead-lettered prompts if omitted)
+     * @return The number of prompts re-driven
+     */
+    @PostMapping("/dead-letter/redrive")
+    public ResponseEntity<Map<String, Object>> redriveDeadLetters(@RequestParam(required = false) List<Long> ids) {
+        log.info("Re-drive dead-lettered prompts request received: {}", ids != null ? ids : "all");
+        int redriven = promptService.redriveDeadLetters(ids);
+        return ResponseEntity.ok(Map.of("redriven", redriven));
+    }
+    
+    /**
+     * Cancel a pending or in-progress prompt.
+     * 
+     * @param id The ID of the prompt to cancel
+     * @return The cancelled prompt, or 409 with the prompt if it had already finished
+     */
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<PromptResponse> cancelPrompt(@PathVariable Long id) {
+        log.info("Cancel prompt request received for ID: {}", id);
+        PromptResponse response = promptService.cancelPrompt(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Prompt not found with ID: " + id));
+        if (!"CANCELLED".equals(response.getStatus())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+}
@@ -3,14 +3,21 @@ package com.gemini.deepresearch.controller;
 import com.gemini.deepresearch.dto.PromptResponse;
 import com.gemini.deepresearch.dto.PromptTemplateDTO;
 import com.gemini.deepresearch.dto.TemplateApplyRequest;
+import com.gemini.deepresearch.exception.TemplateBulkApplyException;
+import com.gemini.deepresearch.service.TemplateReadCache;
 import com.gemini.deepresearch.service.TemplateService;
+import com.gemini.deepresearch.service.TemplateVariableReader;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -103,11 +110,11 @@ public class TemplateController {
     }
     
     /**
-     * Search templates by name and/or category.
+     * Search templates by relevance over name, description and content, and/or by category.
      * 
-     * @param name The name to search for (optional)
+     * @param name The text to search for (optional)
      * @param category The category to filter by (optional)
-     * @return A list of matching templates
+     * @return The most relevant matching templates, up to templates.search.max-results
      */
     @GetMapping("/search")
     public ResponseEntity<List<PromptTemplateDTO>> searchTemplates(
@@ -119,6 +126,28 @@ public class TemplateController {
         return ResponseEntity.ok(templates);
     }
     
+    /**
+     * Search templates like {@link #searchTemplates(String, String)}, one page at a time.
+     * 
+     * @param name The text to search for (optional)
+     * @param category The category to filter by (optional)
+     * @param page The zero-based page number
+     * @param size The page size
+     * @return A page of matching templates, most relevant first
+     */
+    @GetMapping("/search/page")
+    public ResponseEntity<Page<PromptTemplateDTO>> searchTemplatesPage(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        log.info("Paged search templates request received. Name: {}, Category: {}, page: {}", name, category, page);
+        Page<PromptTemplateDTO> templates = templateService.searchTemplates(
+                name, category, PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 100)));
+        return ResponseEntity.ok(templates);
+    }
+    
     /**
      * Get public templates.
      * 
@@ -157,6 +186,84 @@ public class TemplateController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
     
+    /**
+     * Apply a template to a stream of variable rows and create one prompt per row.
+     * The request body is CSV with a header row of variable names (text/csv),
+     * or one JSON object per line (application/x-ndjson).
+     * 
+     * @param id The template ID
+     * @param request The HTTP request carrying the variables stream
+     * @param notificationEmail Email for notifications (optional)
+     * @param notificationPhone Phone for notifications (optional)
+     * @return Result with the number of prompts created; on a malformed row, 400 with the error, the failing
+     *         line and the number of prompts already created for the rows before it
+     */
+    @PostMapping(value = "/{id}/apply-bulk", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> applyTemplateBulk(
+            @PathVariable Long id,
+            HttpServletRequest request,
+            @RequestParam(value = "notificationEmail", required = false) String notificationEmail,
+            @RequestParam(value = "notificationPhone", required = false) String notificationPhone) throws IOException {
+        
+        log.info("Bulk apply template request received for template ID: {}", id);
+        
+        if (!templateService.getTemplateById(id).isPresent()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Template not found with ID: " + id);
+        }
+        
+        TemplateVariableReader.Format format = request.getContentType().startsWith("text/csv")
+                ? TemplateVariableReader.Format.CSV
+                : TemplateVariableReader.Format.NDJSON;
+        
+        try {
+            int count = templateService.applyTemplateBulk(id, request.getInputStream(), format,
+                    notificationEmail, notificationPhone);
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
+                    "message", "Template applied successfully",
+                    "templateId", id,
+                    "promptsCreated", count
+            ));
+        } catch (TemplateBulkApplyException e) {
+            log.warn("Bulk apply of template {} failed after {} prompts: {}", id, e.getPromptsCreated(), e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", e.getMessage(),
+                    "templateId", id,
+                    "line", e.getLineNumber(),
+                    "promptsCreated", e.getPromptsCreated()
+            ));
+        }
+    }
+    
+    /**
+     * Invalidate cached template reads on this node.
+     * Called by peer nodes after a template change, with the shared peer secret.
+     * 
+     * @param id The ID of the changed template (optional; invalidates everything when absent)
+     * @param secret The shared peer secret
+     * @return No content response
+     */
+    @PostMapping("/cache/invalidate")
+    public ResponseEntity<Void> invalidateCache(
+            @RequestParam(required = false) Long id,
+            @RequestHeader(value = TemplateReadCache.PEER_SECRET_HEADER, required = false) String secret) {
+        if (!templateService.isCachePeerAuthorized(secret)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not a configured cache peer");
+        }
+        log.info("Template cache invalidation received for ID: {}", id);
+        templateService.invalidateCache(id);
+        return ResponseEntity.noContent().build();
+    }
+    
+    /**
+     * Get template cache statistics.
+     * 
+     * @return Hits, misses, hit rate and size of the template cache
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(templateService.getCacheStats());
+    }
+    
     /**
      * Get a list of all categories.
      * 
@@ -0,0 +1,68 @@
+package com.gemini.deepresearch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event describing a prompt state transition, pushed to live subscribers.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PromptEvent {
+    
+    /**
+     * Types of prompt events.
+     */
+    public enum Type {
+        CREATED,
+        BATCH_CREATED,
+        IN_PROGRESS,
+        PARTIAL_RESULT,
+        COMPLETED,
+        RETRY_SCHEDULED,
+        ERROR,
+        CANCELLED
+    }
+    
+    private Type type;
+    
+    // Null for BATCH_CREATED events
+    private Long promptId;
+    
+    private String status;
+    
+    private String source;
+    
+    // Number of prompts created, for BATCH_CREATED events
+    private Integer count;
+    
+    // Result or partial result; only sent to subscribers that asked for results
+    private String result;
+    
+    private LocalDateTime timestamp;
+    
+    /**
+     * Copy of this event without the result, for subscribers that did not ask for results.
+     * 
+     * @return The event without its result
+     */
+    public PromptEvent withoutResult() {
+        if (result == null) {
+            return this;
+        }
+        return PromptEvent.builder()
+                .type(type)
+                .promptId(promptId)
+                .status(status)
+                .source(source)
+                .count(count)
+                .timestamp(timestamp)
+                .build();
+    }
+}
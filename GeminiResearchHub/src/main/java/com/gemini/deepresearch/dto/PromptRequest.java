@@ -1,5 +1,7 @@
 package com.gemini.deepresearch.dto;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
@@ -31,4 +33,14 @@ public class PromptRequest {
     private boolean sendSms;
     
     private boolean sendWhatsapp;
+    
+    // Scheduling priority, overriding the default of the source
+    @Min(value = 0, message = "Priority must be between 0 and 9")
+    @Max(value = 9, message = "Priority must be between 0 and 9")
+    private Integer priority;
+    
+    // Deadline for processing the prompt, overriding the configured default
+    @Min(value = 1, message = "Timeout must be at least 1 second")
+    @Max(value = 3600, message = "Timeout must be at most 3600 seconds")
+    private Integer timeoutSeconds;
 }
\ No newline at end of file
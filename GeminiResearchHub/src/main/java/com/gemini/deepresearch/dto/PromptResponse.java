@@ -1,5 +1,6 @@
 package com.gemini.deepresearch.dto;
 
+import com.gemini.deepresearch.model.Prompt;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -34,9 +35,50 @@ public class PromptResponse {
     
     private LocalDateTime completedAt;
     
+    private Integer priority;
+    
+    private LocalDateTime startedAt;
+    
+    private LocalDateTime deadlineAt;
+    
+    private Integer attemptCount;
+    
+    private LocalDateTime nextAttemptAt;
+    
+    private String lastError;
+    
     private String notificationEmail;
     
     private String notificationPhone;
     
     private Boolean notificationSent;
+    
+    /**
+     * Convert entity to DTO.
+     * 
+     * @param prompt The entity
+     * @return The DTO
+     */
+    public static PromptResponse fromEntity(Prompt prompt) {
+        return PromptResponse.builder()
+                .id(prompt.getId())
+                .content(prompt.getContent())
+                .result(prompt.getResult())
+                .status(prompt.getStatus() != null ? prompt.getStatus().name() : null)
+                .createdBy(prompt.getCreatedBy())
+                .source(prompt.getSource())
+                .createdAt(prompt.getCreatedAt())
+                .updatedAt(prompt.getUpdatedAt())
+                .completedAt(prompt.getCompletedAt())
+                .priority(prompt.getPriority())
+                .startedAt(prompt.getStartedAt())
+                .deadlineAt(prompt.getDeadlineAt())
+                .attemptCount(prompt.getAttemptCount())
+                .nextAttemptAt(prompt.getNextAttemptAt())
+                .lastError(prompt.getLastError())
+                .notificationEmail(prompt.getNotificationEmail())
+                .notificationPhone(prompt.getNotificationPhone())
+                .notificationSent(prompt.getNotificationSent())
+                .build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.gemini.deepresearch.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A sheet range to import and the mapping of its columns to prompt fields.
+ * Column indexes are zero-based and relative to the first column of the range.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SheetColumnMapping {
+    
+    @NotBlank(message = "Range is required")
+    private String range;
+    
+    @Builder.Default
+    private Integer contentColumn = 0;
+    
+    private Integer createdByColumn;
+    
+    private Integer notificationEmailColumn;
+    
+    private Integer notificationPhoneColumn;
+    
+    // First of the three columns results are written back to; defaults to right of the last mapped column
+    private Integer outputColumn;
+}
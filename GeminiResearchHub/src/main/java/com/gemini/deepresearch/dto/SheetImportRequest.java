@@ -0,0 +1,33 @@
+package com.gemini.deepresearch.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for importing prompts from several ranges of a Google Sheet in one call.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SheetImportRequest {
+    
+    @NotBlank(message = "Spreadsheet ID is required")
+    private String spreadsheetId;
+    
+    @NotEmpty(message = "At least one range is required")
+    @Valid
+    private List<SheetColumnMapping> ranges;
+    
+    // Defaults for rows without a mapped notification column
+    private String notificationEmail;
+    
+    private String notificationPhone;
+}
@@ -0,0 +1,31 @@
+package com.gemini.deepresearch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A research prompt read from a Google Sheet, together with the cell it was read from.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SheetPrompt {
+    
+    private String content;
+    
+    // Source cell of the content in A1 notation (e.g., "Sheet1!A5:A5")
+    private String cell;
+    
+    // First cell results are written back to, in A1 notation; null to write right of the source cell
+    private String outputCell;
+    
+    // Per-row values from mapped columns; null when not mapped or empty
+    private String createdBy;
+    
+    private String notificationEmail;
+    
+    private String notificationPhone;
+}
@@ -0,0 +1,56 @@
+package com.gemini.deepresearch.dto;
+
+import com.gemini.deepresearch.model.SheetSyncState;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response DTO for an incremental Google Sheets sync.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SheetSyncResult {
+    
+    private Long syncId;
+    
+    private String spreadsheetId;
+    
+    private String range;
+    
+    private Integer rowsFetched;
+    
+    private Integer promptsCreated;
+    
+    private Integer rowsConsumed;
+    
+    private Boolean scheduled;
+    
+    private LocalDateTime lastSyncedAt;
+    
+    /**
+     * Build a result from the sync state after a sync.
+     * 
+     * @param state The sync state
+     * @param rowsFetched Number of new rows fetched in this sync
+     * @param promptsCreated Number of prompts created in this sync
+     * @return The DTO
+     */
+    public static SheetSyncResult fromState(SheetSyncState state, int rowsFetched, int promptsCreated) {
+        return SheetSyncResult.builder()
+                .syncId(state.getId())
+                .spreadsheetId(state.getSpreadsheetId())
+                .range(state.getSheetRange())
+                .rowsFetched(rowsFetched)
+                .promptsCreated(promptsCreated)
+                .rowsConsumed(state.getRowsConsumed())
+                .scheduled(state.getScheduled())
+                .lastSyncedAt(state.getLastSyncedAt())
+                .build();
+    }
+}
@@ -0,0 +1,12 @@
+package com.gemini.deepresearch.exception;
+
+/**
+ * Thrown when Gemini answers successfully but the response holds no usable result,
+ * e.g. no candidates because the prompt was blocked. Retrying does not help.
+ */
+public class GeminiResponseException extends RuntimeException {
+
+    public GeminiResponseException(String message) {
+        super(message);
+    }
+}
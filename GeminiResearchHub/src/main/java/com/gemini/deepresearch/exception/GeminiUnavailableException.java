@@ -0,0 +1,12 @@
+package com.gemini.deepresearch.exception;
+
+/**
+ * Thrown when the Gemini API cannot be called because it is not configured, e.g. no API key is set.
+ * Retrying does not help until the configuration is fixed.
+ */
+public class GeminiUnavailableException extends RuntimeException {
+
+    public GeminiUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.gemini.deepresearch.exception;
+
+/**
+ * Thrown when the Gemini call of a prompt is interrupted because the prompt's deadline passed.
+ */
+public class PromptDeadlineExceededException extends RuntimeException {
+
+    public PromptDeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,27 @@
+package com.gemini.deepresearch.exception;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a bulk template apply stops at an unreadable or malformed variables row.
+ * Prompts for the rows before it are already created; they are reported so a client can resume after them.
+ */
+public class TemplateBulkApplyException extends IOException {
+
+    private final int promptsCreated;
+    private final long lineNumber;
+
+    public TemplateBulkApplyException(String message, int promptsCreated, long lineNumber, Throwable cause) {
+        super(message, cause);
+        this.promptsCreated = promptsCreated;
+        this.lineNumber = lineNumber;
+    }
+
+    public int getPromptsCreated() {
+        return promptsCreated;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+}
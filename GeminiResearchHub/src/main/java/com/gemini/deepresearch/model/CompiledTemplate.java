@@ -0,0 +1,123 @@
+package com.gemini.deepresearch.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A prompt template parsed once into literal and placeholder segments.
+ * Rendering walks the segments in a single pass into a presized builder,
+ * instead of scanning the whole template once per variable.
+ * Instances are immutable and safe to share between threads.
+ */
+public final class CompiledTemplate {
+
+    private static final String DEFAULT_FORMAT = "{{%s}}";
+    
+    // Extra capacity reserved per placeholder when presizing the output
+    private static final int PLACEHOLDER_CAPACITY = 16;
+    
+    // Literal segments; literals[i] precedes placeholders[i], the last literal ends the template
+    private final String[] literals;
+    // Placeholder names and their original text (used when no value is supplied)
+    private final String[] names;
+    private final String[] tokens;
+    private final List<String> placeholderNames;
+    private final int literalLength;
+    
+    private CompiledTemplate(List<String> literals, List<String> names, List<String> tokens) {
+        this.literals = literals.toArray(new String[0]);
+        this.names = names.toArray(new String[0]);
+        this.tokens = tokens.toArray(new String[0]);
+        this.placeholderNames = Collections.unmodifiableList(new ArrayList<>(names));
+        int length = 0;
+        for (String literal : this.literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+    
+    /**
+     * Parse a template into segments.
+     * A placeholder is the format's prefix, followed by a name that does not contain
+     * the first character of the suffix, followed by the suffix (e.g. "{{topic}}").
+     * 
+     * @param templateContent The template content
+     * @param placeholderFormat The placeholder format, e.g. "{{%s}}" (optional)
+     * @return The compiled template
+     */
+    public static CompiledTemplate compile(String templateContent, String placeholderFormat) {
+        String content = templateContent != null ? templateContent : "";
+        String format = placeholderFormat != null ? placeholderFormat : DEFAULT_FORMAT;
+        
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<String> tokens = new ArrayList<>();
+        
+        int marker = format.indexOf("%s");
+        if (marker <= 0 || marker + 2 >= format.length() || format.indexOf("%s", marker + 2) >= 0) {
+            // Unsupported format: the whole template is a single literal
+            literals.add(content);
+            return new CompiledTemplate(literals, names, tokens);
+        }
+        
+        String prefix = format.substring(0, marker);
+        String suffix = format.substring(marker + 2);
+        char suffixStart = suffix.charAt(0);
+        
+        int literalStart = 0;
+        int searchFrom = 0;
+        int start;
+        while ((start = content.indexOf(prefix, searchFrom)) >= 0) {
+            int nameStart = start + prefix.length();
+            int nameEnd = content.indexOf(suffixStart, nameStart);
+            
+            if (nameEnd > nameStart && content.startsWith(suffix, nameEnd)) {
+                int end = nameEnd + suffix.length();
+                literals.add(content.substring(literalStart, start));
+                names.add(content.substring(nameStart, nameEnd));
+                tokens.add(content.substring(start, end));
+                literalStart = end;
+                searchFrom = end;
+            } else {
+                searchFrom = start + 1;
+            }
+        }
+        literals.add(content.substring(literalStart));
+        
+        return new CompiledTemplate(literals, names, tokens);
+    }
+    
+    /**
+     * Render the template with the given variables.
+     * Placeholders without a value are left as they appear in the template.
+     * 
+     * @param variables The variables to fill in the template
+     * @return The filled-in prompt
+     */
+    public String render(Map<String, String> variables) {
+        if (names.length == 0) {
+            return literals[0];
+        }
+        
+        StringBuilder result = new StringBuilder(literalLength + names.length * PLACEHOLDER_CAPACITY);
+        for (int i = 0; i < names.length; i++) {
+            result.append(literals[i]);
+            String value = variables != null ? variables.get(names[i]) : null;
+            result.append(value != null ? value : tokens[i]);
+        }
+        result.append(literals[names.length]);
+        
+        return result.toString();
+    }
+    
+    /**
+     * Get the placeholder names in order of appearance (duplicates included).
+     * 
+     * @return An unmodifiable list of placeholder names
+     */
+    public List<String> getPlaceholders() {
+        return placeholderNames;
+    }
+}
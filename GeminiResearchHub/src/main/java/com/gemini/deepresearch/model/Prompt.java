@@ -52,6 +52,31 @@ public class Prompt {
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
     
+    // When processing started and must have finished; prompts left IN_PROGRESS past the deadline are recovered
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+    
+    @Column(name = "deadline_at")
+    private LocalDateTime deadlineAt;
+    
+    // Scheduling priority, 0 (lowest) to 9; set from the request or the source when created
+    @Column(name = "priority")
+    private Integer priority;
+    
+    // Overrides prompts.processing.timeout-ms for this prompt
+    @Column(name = "timeout_seconds")
+    private Integer timeoutSeconds;
+    
+    // Processing attempts so far, and when a failed prompt may be retried
+    @Column(name = "attempt_count")
+    private Integer attemptCount;
+    
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+    
     @Column(name = "notification_email")
     private String notificationEmail;
     
@@ -67,6 +92,21 @@ public class Prompt {
     @Column(name = "notification_sent")
     private Boolean notificationSent;
     
+    // Source spreadsheet and cell for prompts imported from Google Sheets
+    @Column(name = "sheet_spreadsheet_id")
+    private String sheetSpreadsheetId;
+    
+    @Column(name = "sheet_cell")
+    private String sheetCell;
+    
+    // First cell of the write-back; null for prompts imported before it was recorded
+    @Column(name = "sheet_output_cell")
+    private String sheetOutputCell;
+    
+    // W3C traceparent of the request that created the prompt, continued when it is processed
+    @Column(name = "trace_parent", length = 64)
+    private String traceParent;
+    
     /**
      * Enumeration of possible prompt statuses.
      */
@@ -74,6 +114,8 @@ public class Prompt {
         PENDING,
         IN_PROGRESS,
         COMPLETED,
-        ERROR
+        ERROR,
+        CANCELLED,
+        DEAD_LETTER
     }
 }
\ No newline at end of file
@@ -46,7 +46,9 @@ public class PromptTemplate {
     @Column(name = "category")
     private String category;
     
-    @Column(name = "usage_count")
+    // Only changed through atomic UPDATE statements (see TemplateUsageTracker),
+    // so saving an edited template never overwrites concurrent increments
+    @Column(name = "usage_count", updatable = false)
     private Integer usageCount;
     
     @Column(name = "created_at")
@@ -64,17 +66,7 @@ public class PromptTemplate {
      * @return The filled-in prompt
      */
     public String applyTemplate(java.util.Map<String, String> variables) {
-        String result = this.templateContent;
-        
-        // If no placeholder format is specified, default to {{variable}}
-        String format = this.placeholderFormat != null ? this.placeholderFormat : "{{%s}}";
-        
-        for (java.util.Map.Entry<String, String> entry : variables.entrySet()) {
-            String placeholder = String.format(format, entry.getKey());
-            result = result.replace(placeholder, entry.getValue());
-        }
-        
-        return result;
+        return compile().render(variables);
     }
     
     /**
@@ -83,32 +75,17 @@ public class PromptTemplate {
      * @return A list of placeholder names
      */
     public java.util.List<String> extractPlaceholders() {
-        java.util.List<String> placeholders = new java.util.ArrayList<>();
-        
-        // If no placeholder format is specified, default to {{variable}}
-        String format = this.placeholderFormat != null ? this.placeholderFormat : "{{%s}}";
-        
-        // Extract the pattern part (e.g., for "{{%s}}" it would extract "{{" and "}}")
-        String[] parts = format.split("%s");
-        if (parts.length != 2) {
-            return placeholders; // Invalid format
-        }
-        
-        String prefix = parts[0];
-        String suffix = parts[1];
-        
-        // Find all placeholders in the template
-        java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(
-                java.util.regex.Pattern.quote(prefix) + "([^" + 
-                java.util.regex.Pattern.quote(suffix.substring(0, 1)) + "]+)" + 
-                java.util.regex.Pattern.quote(suffix)
-        );
-        java.util.regex.Matcher matcher = pattern.matcher(this.templateContent);
-        
-        while (matcher.find()) {
-            placeholders.add(matcher.group(1));
-        }
-        
-        return placeholders;
+        return new java.util.ArrayList<>(compile().getPlaceholders());
+    }
+    
+    /**
+     * Parse the template content into a compiled template.
+     * Callers rendering the same template repeatedly should cache the result
+     * (see {@code CompiledTemplateCache}).
+     * 
+     * @return The compiled template
+     */
+    public CompiledTemplate compile() {
+        return CompiledTemplate.compile(this.templateContent, this.placeholderFormat);
     }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.gemini.deepresearch.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity checkpointing one stage of the research pipeline of a prompt
+ * (planning, research of one sub-question, or synthesis).
+ */
+@Entity
+@Table(name = "research_stages",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"prompt_id", "stage_key"}),
+        indexes = @Index(name = "idx_research_stages_input_hash", columnList = "input_hash"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResearchStage {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "prompt_id", nullable = false)
+    private Long promptId;
+    
+    // "plan", "research-1", "research-2", ..., "synthesis"
+    @Column(name = "stage_key", nullable = false, length = 32)
+    private String stageKey;
+    
+    // SHA-256 of the stage kind and its input; a checkpoint is only reused for the same input
+    @Column(name = "input_hash", nullable = false, length = 64)
+    private String inputHash;
+    
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private StageStatus status;
+    
+    @Column(columnDefinition = "TEXT")
+    private String output;
+    
+    @Column(length = 1000)
+    private String error;
+    
+    @Column(name = "attempts")
+    private Integer attempts;
+    
+    @Column(name = "created_at")
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+    
+    /**
+     * Enumeration of possible stage statuses.
+     */
+    public enum StageStatus {
+        COMPLETED,
+        FAILED
+    }
+}
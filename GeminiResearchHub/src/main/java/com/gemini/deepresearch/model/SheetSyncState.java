@@ -0,0 +1,63 @@
+package com.gemini.deepresearch.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity tracking the incremental import position (watermark) of a Google Sheet range.
+ */
+@Entity
+@Table(name = "sheet_sync_states",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"spreadsheet_id", "sheet_range"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SheetSyncState {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "spreadsheet_id", nullable = false)
+    private String spreadsheetId;
+    
+    @Column(name = "sheet_range", nullable = false)
+    private String sheetRange;
+    
+    // Number of rows of the range that have already been imported
+    @Column(name = "rows_consumed", nullable = false)
+    private Integer rowsConsumed;
+    
+    // Hash of the last imported row, used to detect edits above the watermark
+    @Column(name = "last_row_hash")
+    private String lastRowHash;
+    
+    @Column(name = "notification_email")
+    private String notificationEmail;
+    
+    @Column(name = "notification_phone")
+    private String notificationPhone;
+    
+    // Whether the range is polled by the scheduler
+    @Column(name = "scheduled")
+    private Boolean scheduled;
+    
+    @Column(name = "last_synced_at")
+    private LocalDateTime lastSyncedAt;
+    
+    @Column(name = "created_at")
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,20 @@
+package com.gemini.deepresearch.repository;
+
+import com.gemini.deepresearch.model.Prompt;
+
+import java.util.List;
+
+/**
+ * Bulk insert of new prompts, for imports of many prompts at once.
+ */
+public interface PromptBatchRepository {
+    
+    /**
+     * Insert new prompts with JDBC batch statements instead of one INSERT round-trip per prompt.
+     * The generated ID of each prompt is set on it.
+     * 
+     * @param prompts The prompts to insert
+     * @return The number of prompts inserted
+     */
+    int insertAll(List<Prompt> prompts);
+}
@@ -0,0 +1,99 @@
+package com.gemini.deepresearch.repository;
+
+import com.gemini.deepresearch.model.Prompt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC implementation of {@link PromptBatchRepository}.
+ * Prompt IDs are generated by an identity column, which keeps Hibernate from batching
+ * inserts, so imports go through {@link JdbcTemplate#batchUpdate} instead, reading the
+ * generated IDs back from each batch. The statements join the surrounding JPA transaction.
+ */
+public class PromptBatchRepositoryImpl implements PromptBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO prompts (content, status, source, created_by, "
+            + "created_at, updated_at, priority, timeout_seconds, trace_parent, notification_email, "
+            + "notification_phone, send_sms, send_whatsapp, notification_sent, sheet_spreadsheet_id, "
+            + "sheet_cell, sheet_output_cell) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Value("${prompts.ingest.batch-size:500}")
+    private int batchSize;
+    
+    @Override
+    public int insertAll(List<Prompt> prompts) {
+        if (prompts.isEmpty()) {
+            return 0;
+        }
+        
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int from = 0; from < prompts.size(); from += batchSize) {
+            List<Prompt> chunk = prompts.subList(from, Math.min(from + batchSize, prompts.size()));
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[] {"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            setInsertValues(ps, chunk.get(i), now);
+                        }
+                        
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    }, keys);
+            
+            List<Map<String, Object>> generated = keys.getKeyList();
+            for (int i = 0; i < chunk.size() && i < generated.size(); i++) {
+                Object id = generated.get(i).get("id");
+                if (id instanceof Number number) {
+                    chunk.get(i).setId(number.longValue());
+                }
+            }
+        }
+        return prompts.size();
+    }
+    
+    private static void setInsertValues(PreparedStatement ps, Prompt prompt, Timestamp now) throws SQLException {
+        ps.setString(1, prompt.getContent());
+        ps.setString(2, prompt.getStatus().name());
+        ps.setString(3, prompt.getSource());
+        ps.setString(4, prompt.getCreatedBy());
+        ps.setTimestamp(5, now);
+        ps.setTimestamp(6, now);
+        setNullable(ps, 7, prompt.getPriority(), Types.INTEGER);
+        setNullable(ps, 8, prompt.getTimeoutSeconds(), Types.INTEGER);
+        ps.setString(9, prompt.getTraceParent());
+        ps.setString(10, prompt.getNotificationEmail());
+        ps.setString(11, prompt.getNotificationPhone());
+        setNullable(ps, 12, prompt.getSendSms(), Types.BOOLEAN);
+        setNullable(ps, 13, prompt.getSendWhatsapp(), Types.BOOLEAN);
+        setNullable(ps, 14, prompt.getNotificationSent(), Types.BOOLEAN);
+        ps.setString(15, prompt.getSheetSpreadsheetId());
+        ps.setString(16, prompt.getSheetCell());
+        ps.setString(17, prompt.getSheetOutputCell());
+    }
+    
+    private static void setNullable(PreparedStatement ps, int index, Object value, int sqlType) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, sqlType);
+        } else {
+            ps.setObject(index, value, sqlType);
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package com.gemini.deepresearch.repository;
 
 import com.gemini.deepresearch.model.Prompt;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository for prompt entities.
  */
 @Repository
-public interface PromptRepository extends JpaRepository<Prompt, Long> {
+public interface PromptRepository extends JpaRepository<Prompt, Long>, PromptBatchRepository {
     
     /**
      * Find prompts by status.
@@ -28,6 +39,191 @@ public interface PromptRepository extends JpaRepository<Prompt, Long> {
      */
     List<Prompt> findByStatusOrderByCreatedAtDesc(Prompt.PromptStatus status);
     
+    /**
+     * Find the creators of prompts with a specific status that are not waiting for a retry.
+     * 
+     * @param status The status to filter by
+     * @param now The current time; prompts whose next attempt is later are skipped
+     * @return The creators, with an empty string for prompts without one
+     */
+    @Query("SELECT DISTINCT COALESCE(p.createdBy, '') FROM Prompt p WHERE p.status = :status " +
+           "AND (p.nextAttemptAt IS NULL OR p.nextAttemptAt <= :now)")
+    List<String> findReadyCreators(@Param("status") Prompt.PromptStatus status, @Param("now") LocalDateTime now);
+    
+    /**
+     * Find the first prompts of a creator with a specific status that are not waiting for a retry,
+     * highest priority first, then oldest first.
+     * 
+     * @param status The status to filter by
+     * @param now The current time; prompts whose next attempt is later are skipped
+     * @param createdBy The creator, or an empty string for prompts without one
+     * @param pageable How many prompts to return
+     * @return The matching prompts
+     */
+    @Query("SELECT p FROM Prompt p WHERE p.status = :status " +
+           "AND (p.nextAttemptAt IS NULL OR p.nextAttemptAt <= :now) AND COALESCE(p.createdBy, '') = :createdBy " +
+           "ORDER BY COALESCE(p.priority, 0) DESC, p.createdAt")
+    List<Prompt> findReadyByCreator(@Param("status") Prompt.PromptStatus status, @Param("now") LocalDateTime now,
+                                    @Param("createdBy") String createdBy, Pageable pageable);
+    
+    /**
+     * Move a prompt to a new status, count the attempt and record its processing deadline,
+     * if it still has the expected status.
+     * 
+     * @param id The prompt ID
+     * @param expected The status the prompt must have
+     * @param status The new status
+     * @param startedAt When processing started
+     * @param deadlineAt When processing must have finished
+     * @return The number of rows updated
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Prompt p SET p.status = :status, p.startedAt = :startedAt, p.deadlineAt = :deadlineAt, " +
+           "p.attemptCount = COALESCE(p.attemptCount, 0) + 1, p.nextAttemptAt = NULL " +
+           "WHERE p.id = :id AND p.status = :expected")
+    int startProcessing(@Param("id") Long id, @Param("expected") Prompt.PromptStatus expected,
+                        @Param("status") Prompt.PromptStatus status, @Param("startedAt") LocalDateTime startedAt,
+                        @Param("deadlineAt") LocalDateTime deadlineAt);
+    
+    /**
+     * Store the outcome of a prompt, if it still has the expected status.
+     * 
+     * @param id The prompt ID
+     * @param expected The status the prompt must have
+     * @param status The final status
+     * @param result The result
+     * @param completedAt When processing finished
+     * @return The number of rows updated
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Prompt p SET p.status = :status, p.result = :result, p.completedAt = :completedAt " +
+           "WHERE p.id = :id AND p.status = :expected")
+    int finishProcessing(@Param("id") Long id, @Param("expected") Prompt.PromptStatus expected,
+                         @Param("status") Prompt.PromptStatus status, @Param("result") String result,
+                         @Param("completedAt") LocalDateTime completedAt);
+    
+    /**
+     * Fail a prompt for good, if it still has the expected status. The result is left empty;
+     * the error is only recorded in lastError.
+     * 
+     * @param id The prompt ID
+     * @param expected The status the prompt must have
+     * @param status The final status
+     * @param lastError The error of the failed attempt
+     * @param completedAt When processing finished
+     * @return The number of rows updated
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Prompt p SET p.status = :status, p.result = NULL, p.lastError = :lastError, " +
+           "p.completedAt = :completedAt WHERE p.id = :id AND p.status = :expected")
+    int failProcessing(@Param("id") Long id, @Param("expected") Prompt.PromptStatus expected,
+                       @Param("status") Prompt.PromptStatus status, @Param("lastError") String lastError,
+                       @Param("completedAt") LocalDateTime completedAt);
+    
+    /**
+     * Reschedule a failed prompt, if it still has the expected status.
+     * 
+     * @param id The prompt ID
+     * @param expected The status the prompt must have
+     * @param status The status to wait in
+     * @param nextAttemptAt When the prompt may be retried
+     * @param lastError The error of the failed attempt
+     * @return The number of rows updated
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Prompt p SET p.status = :status, p.nextAttemptAt = :nextAttemptAt, p.lastError = :lastError, " +
+           "p.startedAt = NULL, p.deadlineAt = NULL WHERE p.id = :id AND p.status = :expected")
+    int scheduleRetry(@Param("id") Long id, @Param("expected") Prompt.PromptStatus expected,
+                      @Param("status") Prompt.PromptStatus status, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                      @Param("lastError") String lastError);
+    
+    /**
+     * Move a prompt to a new status if it has one of the given statuses.
+     * 
+     * @param id The prompt ID
+     * @param expected The statuses the prompt may have
+     * @param status The new status
+     * @param completedAt When the prompt was finished
+     * @return The number of rows updated
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Prompt p SET p.status = :status, p.completedAt = :completedAt " +
+           "WHERE p.id = :id AND p.status IN :expected")
+    int finishIfIn(@Param("id") Long id, @Param("expected") Collection<Prompt.PromptStatus> expected,
+                   @Param("status") Prompt.PromptStatus status, @Param("completedAt") LocalDateTime completedAt);
+    
+    /**
+     * Reset prompts stuck in a status past their deadline, e.g. after a crash.
+     * Prompts that have used all their attempts are left for {@link #deadLetterStuck}.
+     * 
+     * @param stuck The status the prompts are stuck in
+     * @param status The status to reset them to
+     * @param cutoff Prompts with a deadline before this, or no deadline, are reset
+     * @param maxAttempts The attempt cap
+     * @return The number of rows updated
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Prompt p SET p.status = :status, p.startedAt = NULL, p.deadlineAt = NULL " +
+           "WHERE p.status = :stuck AND (p.deadlineAt IS NULL OR p.deadlineAt < :cutoff) " +
+           "AND COALESCE(p.attemptCount, 0) < :maxAttempts")
+    int resetStuck(@Param("stuck") Prompt.PromptStatus stuck, @Param("status") Prompt.PromptStatus status,
+                   @Param("cutoff") LocalDateTime cutoff, @Param("maxAttempts") int maxAttempts);
+    
+    /**
+     * Move prompts stuck in a status past their deadline that have used all their attempts,
+     * e.g. prompts that crash the application every time, to a final status.
+     * 
+     * @param stuck The status the prompts are stuck in
+     * @param status The final status
+     * @param cutoff Prompts with a deadline before this, or no deadline, are moved
+     * @param maxAttempts The attempt cap
+     * @param lastError The error to record
+     * @param completedAt When the prompts were finished
+     * @return The number of rows updated
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Prompt p SET p.status = :status, p.lastError = :lastError, p.completedAt = :completedAt " +
+           "WHERE p.status = :stuck AND (p.deadlineAt IS NULL OR p.deadlineAt < :cutoff) " +
+           "AND COALESCE(p.attemptCount, 0) >= :maxAttempts")
+    int deadLetterStuck(@Param("stuck") Prompt.PromptStatus stuck, @Param("status") Prompt.PromptStatus status,
+                        @Param("cutoff") LocalDateTime cutoff, @Param("maxAttempts") int maxAttempts,
+                        @Param("lastError") String lastError, @Param("completedAt") LocalDateTime completedAt);
+    
+    /**
+     * Move the given prompts back to a status with their attempt count reset, if they have the expected status.
+     * 
+     * @param ids The prompt IDs
+     * @param expected The status the prompts must have
+     * @param status The new status
+     * @return The number of rows updated
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Prompt p SET p.status = :status, p.attemptCount = 0, p.nextAttemptAt = NULL " +
+           "WHERE p.id IN :ids AND p.status = :expected")
+    int redrive(@Param("ids") Collection<Long> ids, @Param("expected") Prompt.PromptStatus expected,
+                @Param("status") Prompt.PromptStatus status);
+    
+    /**
+     * Move all prompts with the expected status back to a status with their attempt count reset.
+     * 
+     * @param expected The status the prompts must have
+     * @param status The new status
+     * @return The number of rows updated
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Prompt p SET p.status = :status, p.attemptCount = 0, p.nextAttemptAt = NULL " +
+           "WHERE p.status = :expected")
+    int redriveAll(@Param("expected") Prompt.PromptStatus expected, @Param("status") Prompt.PromptStatus status);
+    
     /**
      * Find prompts by source.
      * 
@@ -50,4 +246,25 @@ public interface PromptRepository extends JpaRepository<Prompt, Long> {
      * @return A list of prompts that need notification
      */
     List<Prompt> findByStatusAndNotificationSent(Prompt.PromptStatus status, Boolean notificationSent);
-}
\ No newline at end of file
+    
+    /**
+     * Count prompts with a specific status.
+     * 
+     * @param status The status to count
+     * @return The number of prompts with the given status
+     */
+    long countByStatus(Prompt.PromptStatus status);
+    
+    /**
+     * Stream all prompts in ID order through a database cursor.
+     * Must be consumed inside a read-only transaction and closed afterwards.
+     * 
+     * @return A stream of all prompts
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Prompt p ORDER BY p.id")
+    Stream<Prompt> streamAll();
+}
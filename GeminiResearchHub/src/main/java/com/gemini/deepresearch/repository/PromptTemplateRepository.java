@@ -1,8 +1,14 @@
 package com.gemini.deepresearch.repository;
 
 import com.gemini.deepresearch.model.PromptTemplate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -12,6 +18,17 @@ import java.util.List;
 @Repository
 public interface PromptTemplateRepository extends JpaRepository<PromptTemplate, Long> {
     
+    /**
+     * Full-text document of a template. Must match the expression of the
+     * idx_prompt_templates_fts index created in AppInitializer.
+     */
+    String SEARCH_DOCUMENT = "to_tsvector('english', coalesce(name, '') || ' ' || "
+            + "coalesce(description, '') || ' ' || coalesce(template_content, ''))";
+    
+    String SEARCH_FILTER = "(" + SEARCH_DOCUMENT + " @@ plainto_tsquery('english', :query) "
+            + "OR name ILIKE '%' || :query || '%') "
+            + "AND (CAST(:category AS text) IS NULL OR category = CAST(:category AS text))";
+    
     /**
      * Find templates by name (containing the search string, case-insensitive).
      * 
@@ -51,4 +68,51 @@ public interface PromptTemplateRepository extends JpaRepository<PromptTemplate,
      * @return A list of templates with matching names in the given category
      */
     List<PromptTemplate> findByNameContainingIgnoreCaseAndCategory(String name, String category);
-}
\ No newline at end of file
+    
+    /**
+     * Search templates by relevance over name, description and content.
+     * Matches are full-text matches (served by a GIN index on the search document)
+     * or name substring matches (served by a trigram index on the name when pg_trgm
+     * is available); name matches rank above content-only matches.
+     * 
+     * @param query The search text
+     * @param category The category to filter by (optional)
+     * @param pageable The page to return (must be unsorted; results are ordered by relevance)
+     * @return A page of matching templates
+     */
+    @Query(value = "SELECT * FROM prompt_templates WHERE " + SEARCH_FILTER
+            + " ORDER BY (CASE WHEN name ILIKE '%' || :query || '%' THEN 1 ELSE 0 END) + "
+            + "ts_rank(" + SEARCH_DOCUMENT + ", plainto_tsquery('english', :query)) DESC, id",
+            countQuery = "SELECT count(*) FROM prompt_templates WHERE " + SEARCH_FILTER,
+            nativeQuery = true)
+    Page<PromptTemplate> search(@Param("query") String query, @Param("category") String category, Pageable pageable);
+    
+    /**
+     * Find templates by category, one page at a time.
+     * 
+     * @param category The category to filter by
+     * @param pageable The page to return
+     * @return A page of templates in the given category
+     */
+    Page<PromptTemplate> findByCategory(String category, Pageable pageable);
+    
+    /**
+     * Find the distinct non-blank categories of all templates.
+     * 
+     * @return A sorted list of categories
+     */
+    @Query("SELECT DISTINCT t.category FROM PromptTemplate t WHERE t.category IS NOT NULL AND TRIM(t.category) <> '' ORDER BY t.category")
+    List<String> findDistinctCategories();
+    
+    /**
+     * Atomically add to the usage count of a template in the database.
+     * 
+     * @param id The template ID
+     * @param count The number of uses to add
+     * @return The number of rows updated
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PromptTemplate t SET t.usageCount = COALESCE(t.usageCount, 0) + :count WHERE t.id = :id")
+    int incrementUsageCount(@Param("id") Long id, @Param("count") int count);
+}
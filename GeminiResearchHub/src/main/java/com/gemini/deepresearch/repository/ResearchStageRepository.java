@@ -0,0 +1,50 @@
+package com.gemini.deepresearch.repository;
+
+import com.gemini.deepresearch.model.ResearchStage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository for research pipeline stage checkpoints.
+ */
+@Repository
+public interface ResearchStageRepository extends JpaRepository<ResearchStage, Long> {
+    
+    /**
+     * Find the checkpoint of a stage of a prompt.
+     * 
+     * @param promptId The prompt ID
+     * @param stageKey The stage key
+     * @return The checkpoint, if found
+     */
+    Optional<ResearchStage> findByPromptIdAndStageKey(Long promptId, String stageKey);
+    
+    /**
+     * Find the most recent completed stage with the given input, of any prompt.
+     * 
+     * @param inputHash The input hash
+     * @param status The stage status
+     * @param updatedAfter Only stages updated after this are returned
+     * @return The stage, if found
+     */
+    Optional<ResearchStage> findFirstByInputHashAndStatusAndUpdatedAtAfterOrderByUpdatedAtDesc(
+            String inputHash, ResearchStage.StageStatus status, LocalDateTime updatedAfter);
+    
+    /**
+     * Delete checkpoints last updated before the given time.
+     * 
+     * @param cutoff The cutoff time
+     * @return The number of rows deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ResearchStage s WHERE s.updatedAt < :cutoff")
+    int deleteUpdatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
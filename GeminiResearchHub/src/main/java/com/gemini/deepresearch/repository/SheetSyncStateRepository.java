@@ -0,0 +1,47 @@
+package com.gemini.deepresearch.repository;
+
+import com.gemini.deepresearch.model.SheetSyncState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for Google Sheets sync state entities.
+ */
+@Repository
+public interface SheetSyncStateRepository extends JpaRepository<SheetSyncState, Long> {
+    
+    /**
+     * Find the sync state of a spreadsheet range.
+     * 
+     * @param spreadsheetId The ID of the spreadsheet
+     * @param sheetRange The range of cells
+     * @return The sync state, if found
+     */
+    Optional<SheetSyncState> findBySpreadsheetIdAndSheetRange(String spreadsheetId, String sheetRange);
+    
+    /**
+     * Find a sync state by ID and lock its row for the rest of the transaction,
+     * so that two concurrent syncs of the same range cannot import the same rows.
+     * 
+     * @param id The sync state ID
+     * @return The locked sync state, if found
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SheetSyncState s WHERE s.id = :id")
+    Optional<SheetSyncState> findByIdForUpdate(@Param("id") Long id);
+    
+    /**
+     * Find sync states by scheduled flag.
+     * 
+     * @param scheduled The scheduled flag
+     * @return A list of sync states with the given flag
+     */
+    List<SheetSyncState> findByScheduled(Boolean scheduled);
+}
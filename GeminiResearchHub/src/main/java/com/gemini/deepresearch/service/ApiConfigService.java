@@ -6,6 +6,7 @@ import com.gemini.deepresearch.model.ApiConfig;
 import com.gemini.deepresearch.repository.ApiConfigRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -32,8 +33,14 @@ public class ApiConfigService {
     @Autowired
     private NotificationService notificationService;
     
+    @Autowired
+    private ClientLifecycleManager clientLifecycleManager;
+    
     private final RestTemplate restTemplate = new RestTemplate();
     
+    @Value("${gemini.api.base-url:https://generativelanguage.googleapis.com/v1beta}")
+    private String geminiApiBaseUrl;
+    
     /**
      * Check if the Gemini API is available.
      * 
@@ -190,6 +197,7 @@ public class ApiConfigService {
         }
         
         ApiConfig savedConfig = apiConfigRepository.save(configDTO.toEntity());
+        clientLifecycleManager.onConfigChanged(savedConfig.getConfigType());
         return ApiConfigDTO.fromEntity(savedConfig);
     }
     
@@ -294,7 +302,7 @@ public class ApiConfigService {
         
         try {
             // Gemini API endpoint for models list (lightweight test)
-            String url = "https://generativelanguage.googleapis.com/v1beta/models?key=" + config.getApiKey();
+            String url = geminiApiBaseUrl + "/models?key=" + config.getApiKey();
             
             // Send request
             Map<String, Object> response = restTemplate.getForObject(url, Map.class);
@@ -0,0 +1,66 @@
+package com.gemini.deepresearch.service;
+
+import com.gemini.deepresearch.model.ApiConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service that owns the lifecycle of the external API clients (Twilio, Google Sheets).
+ * Clients are built once at startup when warm-up is enabled, and rebuilt when
+ * their configuration changes. When warm-up is disabled, each client is built
+ * on first use instead.
+ */
+@Service
+@Slf4j
+public class ClientLifecycleManager {
+
+    @Autowired
+    private TwilioService twilioService;
+    
+    @Autowired
+    private GoogleSheetsService googleSheetsService;
+    
+    @Value("${clients.warmup.enabled:true}")
+    private boolean warmupEnabled;
+    
+    /**
+     * Build all external API clients once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!warmupEnabled) {
+            log.info("Client warm-up is disabled, clients will be initialized on first use");
+            return;
+        }
+        
+        long start = System.currentTimeMillis();
+        boolean twilioAvailable = twilioService.initialize();
+        boolean sheetsAvailable = googleSheetsService.initialize();
+        log.info("Client warm-up completed in {} ms (Twilio: {}, Google Sheets: {})",
+                System.currentTimeMillis() - start, twilioAvailable, sheetsAvailable);
+    }
+    
+    /**
+     * Rebuild the client affected by a configuration change.
+     * 
+     * @param configType The type of the configuration that changed
+     */
+    public void onConfigChanged(ApiConfig.ConfigType configType) {
+        switch (configType) {
+            case SMS:
+                log.info("SMS configuration changed, re-initializing Twilio client");
+                twilioService.reinitialize();
+                break;
+            case GOOGLE_SHEETS:
+                log.info("Google Sheets configuration changed, re-initializing Sheets client");
+                googleSheetsService.reinitialize();
+                break;
+            default:
+                break;
+        }
+    }
+}
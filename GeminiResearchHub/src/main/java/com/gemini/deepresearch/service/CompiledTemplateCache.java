@@ -0,0 +1,75 @@
+package com.gemini.deepresearch.service;
+
+import com.gemini.deepresearch.model.CompiledTemplate;
+import com.gemini.deepresearch.model.PromptTemplate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of compiled templates keyed by template ID.
+ * Each entry remembers the template version (its last update time and placeholder format),
+ * so an edited template is recompiled on its next use.
+ */
+@Service
+@Slf4j
+public class CompiledTemplateCache {
+
+    @Value("${templates.compiled-cache.max-size:1000}")
+    private int maxSize;
+    
+    private final ConcurrentHashMap<Long, Entry> cache = new ConcurrentHashMap<>();
+    
+    /**
+     * Get the compiled form of a template, compiling it if it is not cached
+     * or the cached version is stale.
+     * 
+     * @param template The template
+     * @return The compiled template
+     */
+    public CompiledTemplate get(PromptTemplate template) {
+        if (template.getId() == null) {
+            return template.compile();
+        }
+        
+        Entry entry = cache.get(template.getId());
+        if (entry != null && entry.matches(template)) {
+            return entry.compiled();
+        }
+        
+        if (cache.size() >= maxSize) {
+            log.debug("Compiled template cache is full ({} entries), clearing", cache.size());
+            cache.clear();
+        }
+        
+        Entry compiled = new Entry(template.getUpdatedAt(), template.getPlaceholderFormat(), template.compile());
+        cache.put(template.getId(), compiled);
+        return compiled.compiled();
+    }
+    
+    /**
+     * Remove a template from the cache.
+     * 
+     * @param templateId The template ID
+     */
+    public void evict(Long templateId) {
+        if (templateId != null) {
+            cache.remove(templateId);
+        }
+    }
+    
+    /**
+     * A compiled template and the template version it was compiled from.
+     */
+    private record Entry(LocalDateTime updatedAt, String placeholderFormat, CompiledTemplate compiled) {
+        
+        boolean matches(PromptTemplate template) {
+            return Objects.equals(updatedAt, template.getUpdatedAt())
+                    && Objects.equals(placeholderFormat, template.getPlaceholderFormat());
+        }
+    }
+}
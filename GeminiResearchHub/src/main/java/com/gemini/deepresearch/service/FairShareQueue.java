@@ -0,0 +1,121 @@
+package com.gemini.deepresearch.service;
+
+import com.gemini.deepresearch.model.Prompt;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory dispatch order of ready prompts, with one lane per creator.
+ * <p>
+ * The next prompt is the one with the highest effective priority (see
+ * {@link PromptSchedulingPolicy#effectivePriority}). Between prompts of the same priority,
+ * the creator with the lowest virtual time goes first, and each dispatch advances the
+ * creator's virtual time by the inverse of its weight, so creators share the workers in
+ * proportion to their weights however many prompts each has queued. A creator that comes
+ * back after an idle period starts at the current virtual time instead of with banked credit.
+ * <p>
+ * Lanes hold only the first few ready prompts of each creator and are reloaded from the
+ * database. Not thread-safe.
+ */
+class FairShareQueue {
+
+    private final PromptSchedulingPolicy policy;
+    private final Map<String, Lane> lanes = new HashMap<>();
+    private double virtualTime;
+    
+    FairShareQueue(PromptSchedulingPolicy policy) {
+        this.policy = policy;
+    }
+    
+    /**
+     * Replace the queued prompts, keeping the virtual time of each creator.
+     * 
+     * @param readyByCreator The first ready prompts of each creator
+     */
+    void reload(Map<String, List<Prompt>> readyByCreator) {
+        Map<String, Lane> reloaded = new HashMap<>();
+        readyByCreator.forEach((createdBy, prompts) -> {
+            Lane previous = lanes.get(createdBy);
+            double pass = previous != null ? Math.max(previous.pass, virtualTime) : virtualTime;
+            reloaded.put(createdBy, new Lane(createdBy, new ArrayList<>(prompts), pass));
+        });
+        lanes.clear();
+        lanes.putAll(reloaded);
+    }
+    
+    /**
+     * Remove and return the next prompt to process.
+     * 
+     * @param now The current time, for aging
+     * @param exclude IDs of prompts already being processed, which are dropped
+     * @return The next prompt, or null if no prompts are queued
+     */
+    Prompt poll(LocalDateTime now, Set<Long> exclude) {
+        Lane bestLane = null;
+        Prompt bestPrompt = null;
+        long bestPriority = Long.MIN_VALUE;
+        
+        for (Lane lane : lanes.values()) {
+            for (Iterator<Prompt> iterator = lane.prompts.iterator(); iterator.hasNext(); ) {
+                Prompt prompt = iterator.next();
+                if (exclude.contains(prompt.getId())) {
+                    iterator.remove();
+                    continue;
+                }
+                
+                long priority = policy.effectivePriority(prompt, now);
+                if (bestPrompt == null || priority > bestPriority
+                        || (priority == bestPriority && lane.pass < bestLane.pass)
+                        || (priority == bestPriority && lane == bestLane && isOlder(prompt, bestPrompt))) {
+                    bestLane = lane;
+                    bestPrompt = prompt;
+                    bestPriority = priority;
+                }
+            }
+        }
+        
+        if (bestPrompt == null) {
+            return null;
+        }
+        bestLane.prompts.remove(bestPrompt);
+        virtualTime = Math.max(virtualTime, bestLane.pass);
+        bestLane.pass += 1.0 / policy.weightOf(bestLane.createdBy);
+        return bestPrompt;
+    }
+    
+    /**
+     * Get the number of creators with queued prompts.
+     * 
+     * @return The number of non-empty lanes
+     */
+    int getActiveLaneCount() {
+        return (int) lanes.values().stream().filter(lane -> !lane.prompts.isEmpty()).count();
+    }
+    
+    private static boolean isOlder(Prompt prompt, Prompt other) {
+        return prompt.getCreatedAt() != null && other.getCreatedAt() != null
+                && prompt.getCreatedAt().isBefore(other.getCreatedAt());
+    }
+    
+    /**
+     * The queued prompts and virtual time of one creator.
+     */
+    private static final class Lane {
+        
+        private final String createdBy;
+        private final List<Prompt> prompts;
+        private double pass;
+        
+        Lane(String createdBy, List<Prompt> prompts, double pass) {
+            this.createdBy = createdBy;
+            this.prompts = prompts;
+            this.pass = pass;
+        }
+    }
+}
@@ -6,9 +6,10 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -46,22 +47,32 @@ public class FileUploadService {
      * @return List of prompts extracted from the file
      */
     public List<String> extractPromptsFromTextFile(MultipartFile file) {
-        List<String> prompts = new ArrayList<>();
-        
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
-            
-            prompts = reader.lines()
-                    .filter(line -> !line.isBlank())
-                    .collect(Collectors.toList());
-            
+        try {
+            List<String> prompts = extractPrompts(file.getInputStream());
             log.info("Extracted {} prompts from file: {}", prompts.size(), file.getOriginalFilename());
-            
+            return prompts;
         } catch (IOException e) {
             log.error("Error reading file: {}", e.getMessage());
             throw new RuntimeException("Failed to read file: " + e.getMessage());
         }
-        
-        return prompts;
+    }
+    
+    /**
+     * Extract prompts from UTF-8 text, one per non-blank line.
+     * 
+     * @param input The text input (closed by this method)
+     * @return List of prompts extracted from the input
+     * @throws IOException if reading fails
+     */
+    public List<String> extractPrompts(InputStream input) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            
+            return reader.lines()
+                    .filter(line -> !line.isBlank())
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
     }
 }
\ No newline at end of file
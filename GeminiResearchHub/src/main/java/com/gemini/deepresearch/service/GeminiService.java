@@ -1,13 +1,20 @@
 package com.gemini.deepresearch.service;
 
+import com.gemini.deepresearch.exception.GeminiResponseException;
+import com.gemini.deepresearch.exception.GeminiUnavailableException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -23,8 +30,33 @@ public class GeminiService {
     @Autowired
     private ApiConfigService apiConfigService;
     
-    private final RestTemplate restTemplate = new RestTemplate();
-    private static final String API_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-pro:generateContent";
+    @Autowired
+    private PromptMetrics promptMetrics;
+    
+    @Autowired
+    private PromptTracing promptTracing;
+    
+    // The JDK client aborts a request when the calling thread is interrupted, which
+    // PromptCallGuard relies on to enforce deadlines and cancellation
+    private final RestTemplate restTemplate = new RestTemplate(new JdkClientHttpRequestFactory(
+            HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build()));
+    
+    @Value("${gemini.api.base-url:https://generativelanguage.googleapis.com/v1beta}")
+    private String apiBaseUrl;
+    
+    @Value("${gemini.api.model:gemini-pro}")
+    private String model;
+    
+    /**
+     * Process a research prompt through the Gemini API.
+     * 
+     * @param prompt The research prompt
+     * @return The research result
+     * @throws RuntimeException if the API is not available or the request fails
+     */
+    public String processResearchPrompt(String prompt) {
+        return getResearchResult(prompt);
+    }
     
     /**
      * Send a prompt to the Gemini API for deep research.
@@ -36,7 +68,7 @@ public class GeminiService {
     public String getResearchResult(String prompt) {
         if (!apiConfigService.isGeminiApiAvailable()) {
             log.error("Gemini API is not available. Please configure your API key in the admin settings.");
-            throw new RuntimeException("Gemini API is not available. Please configure your API key in the admin settings.");
+            throw new GeminiUnavailableException("Gemini API is not available. Please configure your API key in the admin settings.");
         }
         
         String apiKey = apiConfigService.getGeminiApiKey();
@@ -47,48 +79,86 @@ public class GeminiService {
             headers.setContentType(MediaType.APPLICATION_JSON);
             
             // Prepare request body
-            Map<String, Object> requestBody = new HashMap<>();
-            Map<String, Object> contents = new HashMap<>();
-            
-            List<Map<String, Object>> parts = new ArrayList<>();
-            Map<String, Object> textPart = new HashMap<>();
-            textPart.put("text", prompt);
-            parts.add(textPart);
-            
-            contents.put("parts", parts);
-            contents.put("role", "user");
-            
-            List<Map<String, Object>> contentsList = new ArrayList<>();
-            contentsList.add(contents);
-            
-            requestBody.put("contents", contentsList);
-            requestBody.put("generationConfig", Map.of(
-                    "temperature", 0.7,
-                    "topP", 0.95,
-                    "topK", 40,
-                    "maxOutputTokens", 8192
-            ));
+            Map<String, Object> requestBody = buildRequestBody(prompt);
             
             // Create HTTP entity
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
             
             // Send request to Gemini API
-            String url = API_URL + "?key=" + apiKey;
-            Map<String, Object> response = restTemplate.postForObject(url, entity, Map.class);
+            String url = apiBaseUrl + "/models/" + model + ":generateContent?key=" + apiKey;
+            long start = System.nanoTime();
+            Map<String, Object> response;
+            try {
+                response = promptTracing.inSpan("gemini.generate", "gemini.model", model,
+                        () -> restTemplate.postForObject(url, entity, Map.class));
+            } catch (HttpClientErrorException.TooManyRequests e) {
+                promptMetrics.recordGeminiCall(System.nanoTime() - start, "rate_limited");
+                throw e;
+            } catch (Exception e) {
+                promptMetrics.recordGeminiCall(System.nanoTime() - start, "error");
+                throw e;
+            }
+            promptMetrics.recordGeminiCall(System.nanoTime() - start, "success");
             
             if (response == null) {
-                throw new RuntimeException("Received null response from Gemini API");
+                throw new GeminiResponseException("Received null response from Gemini API");
             }
+            recordUsage(response);
             
             // Parse response
             return extractTextFromResponse(response);
             
         } catch (Exception e) {
             log.error("Error calling Gemini API: {}", e.getMessage());
-            throw new RuntimeException("Failed to get research result: " + e.getMessage());
+            // Keep the cause, so the retry policy can tell transient failures from permanent ones
+            throw new RuntimeException("Failed to get research result: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * Record the token counts reported in the usage metadata of a response.
+     * 
+     * @param response The API response
+     */
+    private void recordUsage(Map<String, Object> response) {
+        if (response.get("usageMetadata") instanceof Map<?, ?> usage) {
+            long promptTokens = usage.get("promptTokenCount") instanceof Number n ? n.longValue() : 0;
+            long candidateTokens = usage.get("candidatesTokenCount") instanceof Number n ? n.longValue() : 0;
+            promptMetrics.recordTokens(promptTokens, candidateTokens);
+        }
+    }
+    
+    /**
+     * Build the generateContent request body for a prompt.
+     * 
+     * @param prompt The research prompt
+     * @return The request body
+     */
+    public Map<String, Object> buildRequestBody(String prompt) {
+        Map<String, Object> requestBody = new HashMap<>();
+        Map<String, Object> contents = new HashMap<>();
+        
+        List<Map<String, Object>> parts = new ArrayList<>();
+        Map<String, Object> textPart = new HashMap<>();
+        textPart.put("text", prompt);
+        parts.add(textPart);
+        
+        contents.put("parts", parts);
+        contents.put("role", "user");
+        
+        List<Map<String, Object>> contentsList = new ArrayList<>();
+        contentsList.add(contents);
+        
+        requestBody.put("contents", contentsList);
+        requestBody.put("generationConfig", Map.of(
+                "temperature", 0.7,
+                "topP", 0.95,
+                "topK", 40,
+                "maxOutputTokens", 8192
+        ));
+        return requestBody;
+    }
+    
     /**
      * Extract text from the Gemini API response.
      * 
@@ -96,7 +166,7 @@ public class GeminiService {
      * @return The extracted text
      */
     @SuppressWarnings("unchecked")
-    private String extractTextFromResponse(Map<String, Object> response) {
+    public String extractTextFromResponse(Map<String, Object> response) {
         try {
             List<Map<String, Object>> candidates = (List<Map<String, Object>>) response.get("candidates");
             if (candidates == null || candidates.isEmpty()) {
@@ -104,12 +174,15 @@ public class GeminiService {
             }
             
             Map<String, Object> candidate = candidates.get(0);
-            List<Map<String, Object>> contents = (List<Map<String, Object>>) candidate.get("content");
-            if (contents == null || contents.isEmpty()) {
+            // The API returns a single content object; older responses wrapped it in a list
+            Object contentValue = candidate.get("content");
+            Map<String, Object> content = contentValue instanceof List<?> contents && !contents.isEmpty()
+                    ? (Map<String, Object>) contents.get(0)
+                    : contentValue instanceof Map<?, ?> ? (Map<String, Object>) contentValue : null;
+            if (content == null) {
                 throw new RuntimeException("No content found in response");
             }
             
-            Map<String, Object> content = contents.get(0);
             List<Map<String, Object>> parts = (List<Map<String, Object>>) content.get("parts");
             if (parts == null || parts.isEmpty()) {
                 throw new RuntimeException("No parts found in response");
@@ -120,7 +193,7 @@ public class GeminiService {
             
         } catch (Exception e) {
             log.error("Error parsing Gemini API response: {}", e.getMessage());
-            throw new RuntimeException("Failed to parse research result: " + e.getMessage());
+            throw new GeminiResponseException("Failed to parse research result: " + e.getMessage());
         }
     }
 }
\ No newline at end of file
@@ -1,13 +1,24 @@
 package com.gemini.deepresearch.service;
 
+import com.gemini.deepresearch.dto.SheetColumnMapping;
+import com.gemini.deepresearch.dto.SheetPrompt;
+import com.gemini.deepresearch.model.ApiConfig;
+import com.gemini.deepresearch.repository.ApiConfigRepository;
 import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
+import com.google.api.client.http.HttpRequestInitializer;
 import com.google.api.client.json.gson.GsonFactory;
 import com.google.api.services.sheets.v4.Sheets;
+import com.google.api.services.sheets.v4.SheetsRequestInitializer;
+import com.google.api.services.sheets.v4.model.BatchGetValuesResponse;
+import com.google.api.services.sheets.v4.model.BatchUpdateValuesRequest;
+import com.google.api.services.sheets.v4.model.BatchUpdateValuesResponse;
 import com.google.api.services.sheets.v4.model.ValueRange;
 import com.google.auth.http.HttpCredentialsAdapter;
 import com.google.auth.oauth2.GoogleCredentials;
+import com.google.auth.oauth2.UserCredentials;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
@@ -22,7 +33,9 @@ import java.util.Collections;
 import java.util.List;
 
 /**
- * Service for reading research prompts from Google Sheets.
+ * Service for reading research prompts from Google Sheets and writing results back.
+ * Credentials come from the active Google Sheets configuration saved in the admin settings,
+ * or from the google.credentials property if there is none.
  */
 @Service
 @Slf4j
@@ -30,51 +43,167 @@ public class GoogleSheetsService {
 
     private static final String APPLICATION_NAME = "Gemini Deep Research";
     
+    private static final String SCOPE_READONLY = "https://www.googleapis.com/auth/spreadsheets.readonly";
+    private static final String SCOPE_READ_WRITE = "https://www.googleapis.com/auth/spreadsheets";
+    
+    @Autowired
+    private ApiConfigRepository apiConfigRepository;
+    
     @Value("${google.credentials:}")
     private String googleCredentialsBase64;
     
-    private Sheets sheetsService;
-    private boolean initialized = false;
+    // Overrides the Sheets API root URL, e.g. to point at a local fake endpoint
+    @Value("${google.sheets.root-url:}")
+    private String sheetsRootUrl;
+    
+    // Write access is only requested when result write-back is enabled
+    @Value("${sheets.writeback.enabled:false}")
+    private boolean writeBackEnabled;
+    
+    private volatile Sheets sheetsService;
+    
+    /**
+     * Availability of the Sheets client: null until the first initialization
+     * attempt, then the outcome of that attempt. Volatile so that availability
+     * checks on the hot path are plain reads without locking.
+     */
+    private volatile Boolean available;
     
     /**
      * Initialize the Google Sheets service with credentials.
-     * This method is called lazily when the service is first used.
+     * The client is built once, either at startup by {@link ClientLifecycleManager}
+     * or on first use when warm-up is disabled. Concurrent callers block until
+     * the single initialization attempt completes.
      * 
      * @return true if initialization was successful, false otherwise
      */
-    private boolean initialize() {
-        if (initialized) {
-            return true;
+    public boolean initialize() {
+        Boolean result = available;
+        if (result != null) {
+            return result;
         }
         
-        if (googleCredentialsBase64 == null || googleCredentialsBase64.isEmpty()) {
-            log.warn("Google credentials are not set. Google Sheets features are disabled.");
-            return false;
+        synchronized (this) {
+            if (available == null) {
+                Sheets built = buildSheetsService();
+                sheetsService = built;
+                available = built != null;
+            }
+            return available;
+        }
+    }
+    
+    /**
+     * Build a new client from the current credentials and swap it in, so that concurrent
+     * readers see either the old client or the new one, never none. The old client is kept
+     * if the rebuild fails. Called when the Google Sheets configuration changes.
+     * 
+     * @return true if re-initialization was successful, false otherwise
+     */
+    public synchronized boolean reinitialize() {
+        Sheets rebuilt = buildSheetsService();
+        if (rebuilt == null) {
+            return available != null && available;
+        }
+        sheetsService = rebuilt;
+        available = true;
+        return true;
+    }
+    
+    /**
+     * Get the initialized Sheets client.
+     * 
+     * @return The Sheets client, or null if the service is not available
+     */
+    private Sheets getSheetsService() {
+        return initialize() ? sheetsService : null;
+    }
+    
+    /**
+     * Build a Sheets client, including its HTTP transport.
+     * Credentials come from the active GOOGLE_SHEETS configuration saved in the admin settings
+     * (an OAuth client ID, secret and refresh token, or an API key), or from the google.credentials
+     * service account property if there is none.
+     * Must only be called while holding the service lock.
+     * 
+     * @return The client, or null if it could not be built
+     */
+    private Sheets buildSheetsService() {
+        ApiConfig config = null;
+        try {
+            config = apiConfigRepository.findByConfigTypeAndIsActive(ApiConfig.ConfigType.GOOGLE_SHEETS, true)
+                    .orElse(null);
+        } catch (Exception e) {
+            log.warn("Could not read the Google Sheets configuration, using properties: {}", e.getMessage());
         }
         
         try {
-            // Convert Base64 credentials to InputStream
-            byte[] credentialsBytes = Base64.getDecoder().decode(googleCredentialsBase64);
-            InputStream credentialsStream = new ByteArrayInputStream(credentialsBytes);
-            
-            // Load credentials
-            GoogleCredentials credentials = GoogleCredentials.fromStream(credentialsStream)
-                    .createScoped(Collections.singletonList("https://www.googleapis.com/auth/spreadsheets.readonly"));
-            
-            // Build the sheets service
-            sheetsService = new Sheets.Builder(
-                    GoogleNetHttpTransport.newTrustedTransport(),
-                    GsonFactory.getDefaultInstance(),
-                    new HttpCredentialsAdapter(credentials))
-                    .setApplicationName(APPLICATION_NAME)
-                    .build();
+            Sheets.Builder builder;
+            String source;
+            if (config != null && !isBlank(config.getRefreshToken())) {
+                // The scopes of a refresh token are fixed when it is granted
+                GoogleCredentials credentials = UserCredentials.newBuilder()
+                        .setClientId(config.getClientId())
+                        .setClientSecret(config.getClientSecret())
+                        .setRefreshToken(config.getRefreshToken())
+                        .build();
+                builder = newBuilder(new HttpCredentialsAdapter(credentials));
+                source = "saved OAuth configuration";
+            } else if (config != null && !isBlank(config.getApiKey())) {
+                // An API key only grants read access to public spreadsheets
+                builder = newBuilder(null)
+                        .setGoogleClientRequestInitializer(new SheetsRequestInitializer(config.getApiKey()));
+                source = "saved API key";
+                if (writeBackEnabled) {
+                    log.warn("Google Sheets uses an API key; writing results back will fail");
+                }
+            } else if (!isBlank(googleCredentialsBase64)) {
+                // Convert Base64 credentials to InputStream
+                byte[] credentialsBytes = Base64.getDecoder().decode(googleCredentialsBase64);
+                InputStream credentialsStream = new ByteArrayInputStream(credentialsBytes);
+                
+                // Load credentials
+                GoogleCredentials credentials = GoogleCredentials.fromStream(credentialsStream)
+                        .createScoped(Collections.singletonList(writeBackEnabled ? SCOPE_READ_WRITE : SCOPE_READONLY));
+                builder = newBuilder(new HttpCredentialsAdapter(credentials));
+                source = "properties";
+            } else {
+                log.warn("Google credentials are not set. Google Sheets features are disabled.");
+                return null;
+            }
             
-            initialized = true;
-            return true;
-        } catch (IOException | GeneralSecurityException e) {
+            Sheets sheets = builder.build();
+            log.info("Google Sheets client initialized from {}", source);
+            return sheets;
+        } catch (IOException | GeneralSecurityException | IllegalArgumentException e) {
             log.error("Failed to initialize Google Sheets service: {}", e.getMessage());
-            return false;
+            return null;
+        }
+    }
+    
+    /**
+     * Create a Sheets client builder with a new HTTP transport.
+     * 
+     * @param requestInitializer The credentials adapter, or null for unauthenticated requests
+     * @return The builder
+     * @throws IOException if the transport cannot be created
+     * @throws GeneralSecurityException if the trusted certificates cannot be loaded
+     */
+    private Sheets.Builder newBuilder(HttpRequestInitializer requestInitializer)
+            throws IOException, GeneralSecurityException {
+        Sheets.Builder builder = new Sheets.Builder(
+                GoogleNetHttpTransport.newTrustedTransport(),
+                GsonFactory.getDefaultInstance(),
+                requestInitializer)
+                .setApplicationName(APPLICATION_NAME);
+        if (!isBlank(sheetsRootUrl)) {
+            builder.setRootUrl(sheetsRootUrl);
         }
+        return builder;
+    }
+    
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
     }
     
     /**
@@ -85,15 +214,41 @@ public class GoogleSheetsService {
      * @return A list of research prompts, or an empty list if reading failed
      */
     public List<String> readPromptsFromSheet(String spreadsheetId, String range) {
-        List<String> prompts = new ArrayList<>();
-        
-        if (!initialize()) {
+        List<String> prompts = extractPrompts(readRowsFromSheet(spreadsheetId, range));
+        log.info("Read {} prompts from Google Sheet", prompts.size());
+        return prompts;
+    }
+    
+    /**
+     * Read the raw rows of a range from a Google Sheet.
+     * Empty rows inside the range are returned as empty lists, so the
+     * position of each row in the result matches its offset in the range.
+     * 
+     * @param spreadsheetId The ID of the spreadsheet
+     * @param range The range of cells to read (e.g., "Sheet1!A2:B10")
+     * @return The rows of the range, or an empty list if reading failed
+     */
+    public List<List<Object>> readRowsFromSheet(String spreadsheetId, String range) {
+        ValueRange valueRange = readValueRange(spreadsheetId, range);
+        return valueRange != null ? valueRange.getValues() : Collections.emptyList();
+    }
+    
+    /**
+     * Read a range from a Google Sheet, along with the range the API resolved it to.
+     * 
+     * @param spreadsheetId The ID of the spreadsheet
+     * @param range The range of cells to read, in A1 notation or a sheet or named range
+     * @return The values of the range, or null if the range is empty or reading failed
+     */
+    private ValueRange readValueRange(String spreadsheetId, String range) {
+        Sheets sheets = getSheetsService();
+        if (sheets == null) {
             log.warn("Cannot read from Google Sheets: Service is not initialized");
-            return prompts;
+            return null;
         }
         
         try {
-            ValueRange response = sheetsService.spreadsheets().values()
+            ValueRange response = sheets.spreadsheets().values()
                     .get(spreadsheetId, range)
                     .execute();
             
@@ -101,26 +256,219 @@ public class GoogleSheetsService {
             
             if (values == null || values.isEmpty()) {
                 log.warn("No data found in the specified range");
-                return prompts;
+                return null;
             }
             
-            // Extract prompts from the sheet
-            // We assume the first column contains the prompts
-            for (List<Object> row : values) {
-                if (!row.isEmpty() && row.get(0) != null) {
-                    String prompt = row.get(0).toString().trim();
-                    if (!prompt.isEmpty()) {
-                        prompts.add(prompt);
-                    }
+            return response;
+        } catch (IOException e) {
+            log.error("Error reading from Google Sheets: {}", e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Extract research prompts from sheet rows.
+     * We assume the first column contains the prompts.
+     * 
+     * @param rows The sheet rows
+     * @return A list of non-empty prompts
+     */
+    public List<String> extractPrompts(List<List<Object>> rows) {
+        List<String> prompts = new ArrayList<>();
+        
+        for (List<Object> row : rows) {
+            if (!row.isEmpty() && row.get(0) != null) {
+                String prompt = row.get(0).toString().trim();
+                if (!prompt.isEmpty()) {
+                    prompts.add(prompt);
                 }
             }
+        }
+        
+        return prompts;
+    }
+    
+    /**
+     * Read research prompts from a Google Sheet along with the cell each prompt was read from.
+     * Sheet names and named ranges are accepted too; source cells are then taken
+     * from the A1 range the API resolved them to.
+     * 
+     * @param spreadsheetId The ID of the spreadsheet
+     * @param range The range of cells to read (e.g., "Sheet1!A2:A", "Sheet1" or a named range)
+     * @return A list of research prompts, or an empty list if reading failed
+     */
+    public List<SheetPrompt> readSheetPrompts(String spreadsheetId, String range) {
+        ValueRange valueRange = readValueRange(spreadsheetId, range);
+        if (valueRange == null) {
+            return Collections.emptyList();
+        }
+        
+        SheetRange sheetRange = resolveRange(valueRange.getRange() != null ? valueRange.getRange() : range);
+        List<SheetPrompt> prompts = sheetRange != null
+                ? extractSheetPrompts(valueRange.getValues(), sheetRange)
+                : extractPrompts(valueRange.getValues()).stream()
+                        .map(content -> SheetPrompt.builder().content(content).build())
+                        .toList();
+        log.info("Read {} prompts from Google Sheet", prompts.size());
+        return prompts;
+    }
+    
+    /**
+     * Parse a range in A1 notation, if it is one.
+     * 
+     * @param range The range
+     * @return The parsed range, or null if the range is not in A1 notation
+     */
+    private SheetRange resolveRange(String range) {
+        try {
+            return SheetRange.parse(range);
+        } catch (IllegalArgumentException e) {
+            log.warn("Range {} is not in A1 notation; results of its prompts are not written back", range);
+            return null;
+        }
+    }
+    
+    /**
+     * Extract research prompts from sheet rows, keeping the source cell of each prompt.
+     * We assume the first column contains the prompts.
+     * 
+     * @param rows The sheet rows
+     * @param range The range the rows were read from
+     * @return A list of non-empty prompts
+     */
+    public List<SheetPrompt> extractSheetPrompts(List<List<Object>> rows, SheetRange range) {
+        return extractSheetPrompts(rows, range, SheetColumnMapping.builder().range(range.toA1()).build());
+    }
+    
+    /**
+     * Extract research prompts from sheet rows using a column mapping,
+     * keeping the source cell of each prompt. Results are written back right of
+     * the last mapped column, or to the mapping's output column, so that write-back
+     * never overwrites mapped data.
+     * 
+     * @param rows The sheet rows
+     * @param range The range the rows were read from, or null if unknown (prompts then have no cells)
+     * @param mapping The mapping of columns to prompt fields
+     * @return A list of non-empty prompts
+     */
+    public List<SheetPrompt> extractSheetPrompts(List<List<Object>> rows, SheetRange range, SheetColumnMapping mapping) {
+        List<SheetPrompt> prompts = new ArrayList<>();
+        int contentColumn = mapping.getContentColumn() != null ? mapping.getContentColumn() : 0;
+        int outputColumn = mapping.getOutputColumn() != null ? mapping.getOutputColumn() : lastMappedColumn(mapping) + 1;
+        
+        for (int i = 0; i < rows.size(); i++) {
+            List<Object> row = rows.get(i);
+            String prompt = cellValue(row, contentColumn);
+            if (prompt != null) {
+                prompts.add(SheetPrompt.builder()
+                        .content(prompt)
+                        .cell(range != null ? range.cellAt(i, contentColumn).toA1() : null)
+                        .outputCell(range != null ? range.cellAt(i, outputColumn).toA1() : null)
+                        .createdBy(cellValue(row, mapping.getCreatedByColumn()))
+                        .notificationEmail(cellValue(row, mapping.getNotificationEmailColumn()))
+                        .notificationPhone(cellValue(row, mapping.getNotificationPhoneColumn()))
+                        .build());
+            }
+        }
+        
+        return prompts;
+    }
+    
+    /**
+     * Get the rightmost column a mapping reads.
+     * 
+     * @param mapping The column mapping
+     * @return The zero-based index of the last mapped column
+     */
+    private int lastMappedColumn(SheetColumnMapping mapping) {
+        int last = mapping.getContentColumn() != null ? mapping.getContentColumn() : 0;
+        for (Integer column : new Integer[] {mapping.getCreatedByColumn(), mapping.getNotificationEmailColumn(),
+                mapping.getNotificationPhoneColumn()}) {
+            if (column != null) {
+                last = Math.max(last, column);
+            }
+        }
+        return last;
+    }
+    
+    /**
+     * Read prompts from several ranges of a spreadsheet in a single values.batchGet call.
+     * Each range is mapped through its column mapping. Source cells are taken from the
+     * A1 range the API resolved each range to, so sheet names and named ranges are accepted.
+     * 
+     * @param spreadsheetId The ID of the spreadsheet
+     * @param mappings The ranges to read and their column mappings
+     * @return The prompts of each range, in the order of the mappings
+     * @throws IOException if the read request fails or the service is not available
+     */
+    public List<List<SheetPrompt>> batchReadSheetPrompts(String spreadsheetId, List<SheetColumnMapping> mappings)
+            throws IOException {
+        Sheets sheets = getSheetsService();
+        if (sheets == null) {
+            throw new IOException("Google Sheets service is not initialized");
+        }
+        
+        List<String> ranges = mappings.stream().map(SheetColumnMapping::getRange).toList();
+        BatchGetValuesResponse response = sheets.spreadsheets().values()
+                .batchGet(spreadsheetId)
+                .setRanges(ranges)
+                .execute();
+        
+        List<List<SheetPrompt>> result = new ArrayList<>(mappings.size());
+        List<ValueRange> valueRanges = response.getValueRanges() != null
+                ? response.getValueRanges() : Collections.emptyList();
+        for (int i = 0; i < mappings.size(); i++) {
+            ValueRange valueRange = i < valueRanges.size() ? valueRanges.get(i) : null;
+            if (valueRange == null || valueRange.getValues() == null) {
+                result.add(Collections.emptyList());
+                continue;
+            }
             
-            log.info("Read {} prompts from Google Sheet", prompts.size());
-            return prompts;
-        } catch (IOException e) {
-            log.error("Error reading from Google Sheets: {}", e.getMessage());
-            return prompts;
+            SheetRange sheetRange = resolveRange(valueRange.getRange() != null ? valueRange.getRange() : ranges.get(i));
+            result.add(extractSheetPrompts(valueRange.getValues(), sheetRange, mappings.get(i)));
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Get the trimmed value of a cell in a row.
+     * 
+     * @param row The row
+     * @param column The zero-based column index, or null if not mapped
+     * @return The trimmed value, or null if the column is not mapped or the cell is empty
+     */
+    private String cellValue(List<Object> row, Integer column) {
+        if (column == null || column < 0 || column >= row.size() || row.get(column) == null) {
+            return null;
+        }
+        String value = row.get(column).toString().trim();
+        return value.isEmpty() ? null : value;
+    }
+    
+    /**
+     * Write several ranges of a spreadsheet in a single values.batchUpdate call.
+     * 
+     * @param spreadsheetId The ID of the spreadsheet
+     * @param data The ranges and values to write
+     * @return The number of cells updated
+     * @throws IOException if the update request fails
+     */
+    public int batchUpdateValues(String spreadsheetId, List<ValueRange> data) throws IOException {
+        Sheets sheets = getSheetsService();
+        if (sheets == null) {
+            throw new IOException("Google Sheets service is not initialized");
         }
+        
+        BatchUpdateValuesRequest request = new BatchUpdateValuesRequest()
+                .setValueInputOption("RAW")
+                .setData(data);
+        
+        BatchUpdateValuesResponse response = sheets.spreadsheets().values()
+                .batchUpdate(spreadsheetId, request)
+                .execute();
+        
+        return response.getTotalUpdatedCells() != null ? response.getTotalUpdatedCells() : 0;
     }
     
     /**
@@ -0,0 +1,118 @@
+package com.gemini.deepresearch.service;
+
+import com.gemini.deepresearch.exception.PromptDeadlineExceededException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Supplier;
+
+/**
+ * Enforces deadlines and cancellation on the outbound call of a prompt being processed.
+ * The calling thread is interrupted when the deadline passes or the prompt is cancelled;
+ * the Gemini client sends requests through the JDK HttpClient, which aborts the exchange
+ * on interrupt. Only calls running on this node can be interrupted.
+ */
+@Service
+@Slf4j
+public class PromptCallGuard {
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+    
+    private final Map<Long, ActiveCall> calls = new ConcurrentHashMap<>();
+    
+    /**
+     * Run the outbound call of a prompt, interrupting it at the deadline or on cancellation.
+     * 
+     * @param promptId The prompt ID
+     * @param deadline When the call must have finished
+     * @param call The call
+     * @return The result of the call
+     * @throws CancellationException if the prompt was cancelled during the call
+     * @throws PromptDeadlineExceededException if the call failed after the deadline interrupted it
+     */
+    public <T> T call(Long promptId, LocalDateTime deadline, Supplier<T> call) {
+        ActiveCall active = new ActiveCall(Thread.currentThread());
+        calls.put(promptId, active);
+        ScheduledFuture<?> timer = taskScheduler.schedule(() -> interrupt(promptId, Reason.DEADLINE),
+                deadline.atZone(ZoneId.systemDefault()).toInstant());
+        
+        T result = null;
+        RuntimeException failure = null;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            calls.remove(promptId);
+            timer.cancel(false);
+        }
+        
+        // No interrupt can arrive once the call is removed; clear one that landed after the call returned
+        if (active.reason != null) {
+            Thread.interrupted();
+        }
+        if (active.reason == Reason.CANCELLED) {
+            throw new CancellationException("Prompt " + promptId + " was cancelled");
+        }
+        if (failure != null) {
+            if (active.reason == Reason.DEADLINE) {
+                throw new PromptDeadlineExceededException("Deadline of prompt " + promptId + " exceeded", failure);
+            }
+            throw failure;
+        }
+        return result;
+    }
+    
+    /**
+     * Interrupt the outbound call of a cancelled prompt, if it is running on this node.
+     * 
+     * @param promptId The prompt ID
+     * @return Whether a running call was interrupted
+     */
+    public boolean cancel(Long promptId) {
+        return interrupt(promptId, Reason.CANCELLED);
+    }
+    
+    private boolean interrupt(Long promptId, Reason reason) {
+        boolean[] interrupted = new boolean[1];
+        calls.computeIfPresent(promptId, (id, active) -> {
+            if (active.reason == null) {
+                active.reason = reason;
+                active.thread.interrupt();
+                interrupted[0] = true;
+            }
+            return active;
+        });
+        if (interrupted[0]) {
+            log.info("Interrupted Gemini call of prompt {}: {}", promptId, reason);
+        }
+        return interrupted[0];
+    }
+    
+    private enum Reason {
+        DEADLINE,
+        CANCELLED
+    }
+    
+    /**
+     * A running call and why it was interrupted, if it was.
+     */
+    private static final class ActiveCall {
+        
+        private final Thread thread;
+        private volatile Reason reason;
+        
+        ActiveCall(Thread thread) {
+            this.thread = thread;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.gemini.deepresearch.service;
+
+import com.gemini.deepresearch.dto.PromptEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fan-out hub pushing prompt events to Server-Sent Events subscribers.
+ * Idle subscribers hold no thread: each one is an async response plus a small bounded queue.
+ * Events are delivered by a fixed pool of dispatcher threads (virtual threads when
+ * spring.threads.virtual.enabled is set); a subscriber whose queue
+ * fills up (a slow consumer) is disconnected rather than allowed to buffer without bound,
+ * and is expected to reconnect and reload the prompt list. A subscriber whose send blocks for
+ * longer than prompts.events.send-timeout-ms (a stalled peer) is disconnected as well, and the
+ * dispatcher thread stuck in its send is interrupted, so a few stalled connections cannot hold
+ * up delivery to everyone else until the container's own write timeout.
+ */
+@Service
+@Slf4j
+public class PromptEventHub {
+
+    @Value("${prompts.events.max-subscribers:10000}")
+    private int maxSubscribers;
+    
+    @Value("${prompts.events.queue-capacity:256}")
+    private int queueCapacity;
+    
+    @Value("${prompts.events.timeout-ms:1800000}")
+    private long timeoutMs;
+    
+    @Value("${prompts.events.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+    
+    private final Executor dispatcher;
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final AtomicLong eventSequence = new AtomicLong();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    
+    public PromptEventHub(@Value("${prompts.events.dispatcher-threads:4}") int dispatcherThreads,
+                          @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            // One virtual thread per drain; a subscriber blocked on a slow socket costs no platform thread
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Prompt-Events-");
+            executor.setVirtualThreads(true);
+            this.dispatcher = executor;
+        } else {
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.dispatcher = Executors.newFixedThreadPool(dispatcherThreads, runnable -> {
+                Thread thread = new Thread(runnable, "Prompt-Events-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+    
+    /**
+     * Register a new subscriber.
+     * 
+     * @param promptId Only deliver events of this prompt (optional)
+     * @param includeResults Whether events should carry results
+     * @return The emitter for the SSE response, or null if the subscriber limit is reached
+     */
+    public SseEmitter subscribe(Long promptId, boolean includeResults) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            log.warn("Rejecting prompt event subscriber: limit of {} reached", maxSubscribers);
+            return null;
+        }
+        
+        long id = nextId.incrementAndGet();
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(id, emitter, promptId, includeResults,
+                new ArrayBlockingQueue<>(queueCapacity));
+        subscribers.put(id, subscriber);
+        
+        emitter.onCompletion(() -> remove(id));
+        emitter.onTimeout(() -> remove(id));
+        emitter.onError(e -> remove(id));
+        
+        log.debug("Prompt event subscriber {} registered ({} active)", id, subscriberCount.get());
+        return emitter;
+    }
+    
+    /**
+     * Publish a prompt event to all matching subscribers.
+     * Invoked once the transaction that produced the event has committed,
+     * so subscribers never see a state they cannot read back.
+     * Runs on the publishing thread (a prompt worker or request thread), so it never sends or blocks:
+     * a slow subscriber is removed here and its response completed on a dispatcher thread.
+     * 
+     * @param event The event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(PromptEvent event) {
+        // One SSE id per event, increasing across the hub, so it is usable as a Last-Event-ID
+        long sequence = eventSequence.incrementAndGet();
+        for (Subscriber subscriber : subscribers.values()) {
+            if (subscriber.promptId() != null && !subscriber.promptId().equals(event.getPromptId())) {
+                continue;
+            }
+            
+            PromptEvent delivered = subscriber.includeResults() ? event : event.withoutResult();
+            if (!subscriber.queue().offer(new QueuedEvent(sequence, delivered))) {
+                log.warn("Disconnecting slow prompt event subscriber {}: {} events queued",
+                        subscriber.id(), queueCapacity);
+                remove(subscriber.id());
+                // complete() waits for a send in progress, which may be stuck on the slow peer
+                dispatcher.execute(() -> subscriber.emitter().complete());
+                continue;
+            }
+            scheduleDrain(subscriber);
+        }
+    }
+    
+    /**
+     * Send a heartbeat comment to all subscribers, so that proxies keep idle
+     * connections open and closed connections are detected.
+     */
+    @Scheduled(fixedRateString = "${prompts.events.heartbeat-ms:30000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers.values()) {
+            dispatcher.execute(() -> {
+                try {
+                    send(subscriber, SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | IllegalStateException e) {
+                    remove(subscriber.id());
+                }
+            });
+        }
+    }
+    
+    /**
+     * Disconnect subscribers whose current send has been blocked for longer than the send timeout.
+     */
+    @Scheduled(fixedDelayString = "${prompts.events.stall-check-ms:1000}")
+    public void disconnectStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers.values()) {
+            long started = subscriber.sendStartedNanos().get();
+            if (started == 0 || now - started < TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs)) {
+                continue;
+            }
+            
+            log.warn("Disconnecting stalled prompt event subscriber {}: send blocked for over {} ms",
+                    subscriber.id(), sendTimeoutMs);
+            remove(subscriber.id());
+            // Guarded so that the interrupt cannot reach the thread after it has moved on to another send
+            synchronized (subscriber.sender()) {
+                Thread sender = subscriber.sender().get();
+                if (sender != null) {
+                    sender.interrupt();
+                }
+            }
+            subscriber.emitter().completeWithError(new IOException("Event send timed out"));
+        }
+    }
+    
+    /**
+     * Get the number of connected subscribers.
+     * 
+     * @return The subscriber count
+     */
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(subscriber -> subscriber.emitter().complete());
+        if (dispatcher instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        } else if (dispatcher instanceof SimpleAsyncTaskExecutor executor) {
+            executor.close();
+        }
+    }
+    
+    /**
+     * Make sure exactly one dispatcher thread is draining the subscriber's queue.
+     * 
+     * @param subscriber The subscriber
+     */
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining().compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(subscriber));
+        }
+    }
+    
+    /**
+     * Send all queued events of a subscriber.
+     * 
+     * @param subscriber The subscriber
+     */
+    private void drain(Subscriber subscriber) {
+        try {
+            QueuedEvent queued;
+            while ((queued = subscriber.queue().poll()) != null) {
+                send(subscriber, SseEmitter.event()
+                        .name("prompt")
+                        .id(String.valueOf(queued.sequence()))
+                        .data(queued.event()));
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Prompt event subscriber {} disconnected: {}", subscriber.id(), e.getMessage());
+            remove(subscriber.id());
+            return;
+        } finally {
+            subscriber.draining().set(false);
+        }
+        
+        // An event may have been queued after the last poll but before the flag was cleared
+        if (!subscriber.queue().isEmpty() && subscribers.containsKey(subscriber.id())) {
+            scheduleDrain(subscriber);
+        }
+    }
+    
+    /**
+     * Send one event to a subscriber, recording when the send started so that
+     * {@link #disconnectStalled()} can detect a send blocked on a stalled peer.
+     * 
+     * @param subscriber The subscriber
+     * @param event The event
+     * @throws IOException if the send fails or is interrupted by the stall check
+     */
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        subscriber.sendLock().lock();
+        try {
+            if (!subscribers.containsKey(subscriber.id())) {
+                throw new IllegalStateException("Subscriber " + subscriber.id() + " was disconnected");
+            }
+            subscriber.sender().set(Thread.currentThread());
+            subscriber.sendStartedNanos().set(System.nanoTime());
+            subscriber.emitter().send(event);
+        } finally {
+            subscriber.sendStartedNanos().set(0);
+            synchronized (subscriber.sender()) {
+                subscriber.sender().set(null);
+                // Clear an interrupt from the stall check that arrived after the send returned
+                Thread.interrupted();
+            }
+            subscriber.sendLock().unlock();
+        }
+    }
+    
+    private void remove(long id) {
+        if (subscribers.remove(id) != null) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+    
+    /**
+     * A connected subscriber and its pending events.
+     */
+    private record Subscriber(long id, SseEmitter emitter, Long promptId, boolean includeResults,
+                              BlockingQueue<QueuedEvent> queue, AtomicBoolean draining, ReentrantLock sendLock,
+                              AtomicLong sendStartedNanos, AtomicReference<Thread> sender) {
+        
+        Subscriber(long id, SseEmitter emitter, Long promptId, boolean includeResults,
+                   BlockingQueue<QueuedEvent> queue) {
+            // A lock instead of synchronized, so a send blocked on the socket does not pin a virtual thread
+            this(id, emitter, promptId, includeResults, queue, new AtomicBoolean(), new ReentrantLock(),
+                    new AtomicLong(), new AtomicReference<>());
+        }
+    }
+    
+    /**
+     * An event waiting to be sent, with its hub-wide sequence number.
+     */
+    private record QueuedEvent(long sequence, PromptEvent event) {
+    }
+}
@@ -0,0 +1,171 @@
+package com.gemini.deepresearch.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.gemini.deepresearch.dto.PromptResponse;
+import com.gemini.deepresearch.model.Prompt;
+import com.gemini.deepresearch.repository.PromptRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service for exporting prompts and their results as NDJSON or CSV.
+ * Rows are read through a database cursor with a fixed fetch size and written
+ * through a fixed-size buffer, so exports of any size run in constant memory.
+ */
+@Service
+@Slf4j
+public class PromptExportService {
+
+    /**
+     * Supported export formats.
+     */
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER =
+            "id,content,result,status,createdBy,source,createdAt,updatedAt,completedAt,notificationEmail,notificationPhone\n";
+    
+    @Autowired
+    private PromptRepository promptRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    public PromptExportService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+    
+    /**
+     * Write all prompts to the output stream.
+     * 
+     * @param output The output stream (not closed by this method)
+     * @param format The export format
+     * @param gzip Whether to gzip-compress the output
+     * @return The number of prompts exported
+     * @throws IOException if writing fails
+     */
+    public long export(OutputStream output, Format format, boolean gzip) throws IOException {
+        GZIPOutputStream gzipOutput = gzip ? new GZIPOutputStream(output, BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(gzipOutput != null ? gzipOutput : output, StandardCharsets.UTF_8), BUFFER_SIZE);
+        ObjectWriter jsonWriter = objectMapper.writerFor(PromptResponse.class);
+        
+        long start = System.currentTimeMillis();
+        Long count;
+        try {
+            count = transactionTemplate.execute(status -> {
+                long exported = 0;
+                try (Stream<Prompt> prompts = promptRepository.streamAll()) {
+                    if (format == Format.CSV) {
+                        writer.write(CSV_HEADER);
+                    }
+                    
+                    Iterator<Prompt> iterator = prompts.iterator();
+                    while (iterator.hasNext()) {
+                        Prompt prompt = iterator.next();
+                        PromptResponse row = PromptResponse.fromEntity(prompt);
+                        // Keep the persistence context from growing with the export
+                        entityManager.detach(prompt);
+                        
+                        if (format == Format.CSV) {
+                            writeCsvRow(writer, row);
+                        } else {
+                            writer.write(jsonWriter.writeValueAsString(row));
+                            writer.write('\n');
+                        }
+                        exported++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return exported;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        
+        writer.flush();
+        if (gzipOutput != null) {
+            gzipOutput.finish();
+        }
+        
+        log.info("Exported {} prompts as {} in {} ms", count, format, System.currentTimeMillis() - start);
+        return count != null ? count : 0;
+    }
+    
+    /**
+     * Write a prompt as a CSV row (RFC 4180 quoting).
+     * 
+     * @param writer The writer
+     * @param row The prompt
+     * @throws IOException if writing fails
+     */
+    private void writeCsvRow(Writer writer, PromptResponse row) throws IOException {
+        writer.write(String.valueOf(row.getId()));
+        writeCsvField(writer, row.getContent());
+        writeCsvField(writer, row.getResult());
+        writeCsvField(writer, row.getStatus());
+        writeCsvField(writer, row.getCreatedBy());
+        writeCsvField(writer, row.getSource());
+        writeCsvField(writer, row.getCreatedAt());
+        writeCsvField(writer, row.getUpdatedAt());
+        writeCsvField(writer, row.getCompletedAt());
+        writeCsvField(writer, row.getNotificationEmail());
+        writeCsvField(writer, row.getNotificationPhone());
+        writer.write('\n');
+    }
+    
+    private void writeCsvField(Writer writer, LocalDateTime value) throws IOException {
+        writeCsvField(writer, value != null ? value.toString() : null);
+    }
+    
+    private void writeCsvField(Writer writer, String value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,232 @@
+package com.gemini.deepresearch.service;
+
+import com.gemini.deepresearch.model.Prompt;
+import com.gemini.deepresearch.repository.PromptRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Micrometer instrumentation of the prompt lifecycle, exposed through Actuator
+ * at /actuator/prometheus. Meter names are defined here so that the services
+ * only report what happened.
+ * <p>
+ * Queue depth is refreshed from the database on a schedule rather than queried on
+ * every scrape. JDBC pool saturation is reported by the Hikari metrics that Actuator
+ * binds automatically (hikaricp.connections.*).
+ */
+@Service
+@Slf4j
+public class PromptMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private PromptRepository promptRepository;
+    
+    @Autowired
+    private TemplateReadCache templateReadCache;
+    
+    @Autowired
+    private PromptEventHub promptEventHub;
+    
+    @Autowired
+    private SheetWriteBackService sheetWriteBackService;
+    
+    private final Map<Prompt.PromptStatus, AtomicLong> queueDepth = new EnumMap<>(Prompt.PromptStatus.class);
+    
+    @PostConstruct
+    public void registerGauges() {
+        for (Prompt.PromptStatus status : Prompt.PromptStatus.values()) {
+            queueDepth.put(status, meterRegistry.gauge("prompts.queue.depth",
+                    Tags.of("status", status.name()), new AtomicLong()));
+        }
+        
+        FunctionCounter.builder("templates.cache.requests", templateReadCache, TemplateReadCache::getHitCount)
+                .description("Template read cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("templates.cache.requests", templateReadCache, TemplateReadCache::getMissCount)
+                .description("Template read cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        
+        Gauge.builder("prompts.events.subscribers", promptEventHub, PromptEventHub::getSubscriberCount)
+                .description("Connected prompt event stream subscribers")
+                .register(meterRegistry);
+        Gauge.builder("sheets.writeback.pending", sheetWriteBackService, SheetWriteBackService::getPendingCount)
+                .description("Sheet write-backs waiting to be flushed")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Refresh the number of prompts per status.
+     */
+    @Scheduled(fixedDelayString = "${metrics.queue-depth.refresh-ms:15000}")
+    public void refreshQueueDepth() {
+        try {
+            for (Map.Entry<Prompt.PromptStatus, AtomicLong> entry : queueDepth.entrySet()) {
+                entry.getValue().set(promptRepository.countByStatus(entry.getKey()));
+            }
+        } catch (Exception e) {
+            log.warn("Could not refresh prompt queue depth: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Record prompts entering the system.
+     * 
+     * @param source Source of the prompts (e.g., "WEB", "FILE", "SHEETS")
+     * @param count Number of prompts
+     */
+    public void recordIngested(String source, int count) {
+        if (count > 0) {
+            Counter.builder("prompts.ingested")
+                    .description("Prompts created, by source")
+                    .tag("source", source != null ? source : "UNKNOWN")
+                    .register(meterRegistry)
+                    .increment(count);
+        }
+    }
+    
+    /**
+     * Record a failed processing attempt.
+     * 
+     * @param failureClass "TRANSIENT", "RATE_LIMITED" or "PERMANENT"
+     * @param outcome "retry", "error" or "dead_letter"
+     */
+    public void recordFailure(String failureClass, String outcome) {
+        Counter.builder("prompts.failures")
+                .description("Failed processing attempts, by failure class and what happened next")
+                .tag("class", failureClass)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+    
+    /**
+     * Record prompts reset to PENDING after being left in progress past their deadline.
+     * 
+     * @param count Number of prompts recovered
+     */
+    public void recordRecovered(int count) {
+        Counter.builder("prompts.recovered")
+                .description("Prompts recovered after being stuck in progress")
+                .register(meterRegistry)
+                .increment(count);
+    }
+    
+    /**
+     * Record how long a prompt waited between creation and the start of processing.
+     * 
+     * @param prompt The prompt about to be processed
+     */
+    public void recordQueueTime(Prompt prompt) {
+        if (prompt.getCreatedAt() == null) {
+            return;
+        }
+        Timer.builder("prompts.queue.time")
+                .description("Time from prompt creation to start of processing")
+                .tag("source", prompt.getSource() != null ? prompt.getSource() : "UNKNOWN")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.between(prompt.getCreatedAt(), LocalDateTime.now()));
+    }
+    
+    /**
+     * Record a Gemini API call.
+     * 
+     * @param nanos Call duration in nanoseconds
+     * @param outcome "success", "rate_limited" or "error"
+     */
+    public void recordGeminiCall(long nanos, String outcome) {
+        Timer.builder("gemini.request")
+                .description("Gemini generateContent call latency")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.ofNanos(nanos));
+    }
+    
+    /**
+     * Record a research pipeline stage run against the Gemini API.
+     * 
+     * @param stage "plan", "research" or "synthesis"
+     * @param outcome "success" or "error"
+     * @param nanos Stage duration in nanoseconds
+     */
+    public void recordResearchStage(String stage, String outcome, long nanos) {
+        Timer.builder("research.stage")
+                .description("Research pipeline stage latency")
+                .tag("stage", stage)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.ofNanos(nanos));
+    }
+    
+    /**
+     * Record a research pipeline stage served without calling the Gemini API.
+     * 
+     * @param stage "plan", "research" or "synthesis"
+     * @param source "checkpoint" (earlier attempt of the same prompt) or "cache" (another prompt)
+     */
+    public void recordResearchStageReused(String stage, String source) {
+        Counter.builder("research.stage.reused")
+                .description("Research pipeline stages reused from a checkpoint or the cache")
+                .tag("stage", stage)
+                .tag("source", source)
+                .register(meterRegistry)
+                .increment();
+    }
+    
+    /**
+     * Record the tokens consumed by a Gemini API call.
+     * 
+     * @param promptTokens Input tokens
+     * @param candidateTokens Output tokens
+     */
+    public void recordTokens(long promptTokens, long candidateTokens) {
+        Counter.builder("gemini.tokens").tag("direction", "in").register(meterRegistry).increment(promptTokens);
+        Counter.builder("gemini.tokens").tag("direction", "out").register(meterRegistry).increment(candidateTokens);
+    }
+    
+    /**
+     * Send a notification, recording its latency and outcome per channel.
+     * 
+     * @param channel "email", "sms" or "whatsapp"
+     * @param send Sends the notification and returns whether it was sent
+     * @return Whether the notification was sent
+     */
+    public boolean timeNotification(String channel, BooleanSupplier send) {
+        long start = System.nanoTime();
+        boolean sent = false;
+        try {
+            sent = send.getAsBoolean();
+            return sent;
+        } finally {
+            Timer.builder("notifications.send")
+                    .description("Notification delivery latency")
+                    .tag("channel", channel)
+                    .tag("outcome", sent ? "sent" : "failed")
+                    .register(meterRegistry)
+                    .record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.gemini.deepresearch.service;
+
+import com.gemini.deepresearch.exception.GeminiResponseException;
+import com.gemini.deepresearch.exception.GeminiUnavailableException;
+import com.gemini.deepresearch.exception.PromptDeadlineExceededException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether a failed prompt is retried, and when.
+ * Failures are classified as transient (timeouts, I/O errors, 5xx), rate-limited (429)
+ * or permanent (other 4xx, unusable responses, Gemini not configured). Transient and rate-limited
+ * failures are retried with exponential backoff and jitter until the attempt cap is reached;
+ * rate-limited ones start from a longer base delay and do not retry before the server's
+ * Retry-After, which is capped at the maximum delay.
+ */
+@Service
+public class PromptRetryPolicy {
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long rateLimitBaseDelayMs;
+    private final long maxDelayMs;
+    
+    public PromptRetryPolicy(
+            @Value("${prompts.retry.max-attempts:5}") int maxAttempts,
+            @Value("${prompts.retry.base-delay-ms:10000}") long baseDelayMs,
+            @Value("${prompts.retry.rate-limit-base-delay-ms:30000}") long rateLimitBaseDelayMs,
+            @Value("${prompts.retry.max-delay-ms:600000}") long maxDelayMs) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.rateLimitBaseDelayMs = rateLimitBaseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+    
+    /**
+     * Classes of processing failures.
+     */
+    public enum FailureClass {
+        TRANSIENT,
+        RATE_LIMITED,
+        PERMANENT
+    }
+    
+    /**
+     * Outcome of a failed attempt.
+     * 
+     * @param failureClass The class of the failure
+     * @param retryDelay Delay before the next attempt, or null if the prompt is not retried
+     */
+    public record Decision(FailureClass failureClass, Duration retryDelay) {
+        
+        public boolean isRetry() {
+            return retryDelay != null;
+        }
+    }
+    
+    /**
+     * Decide what happens after a failed attempt.
+     * 
+     * @param error The failure
+     * @param attempt The number of the attempt that failed, starting at 1
+     * @return The decision
+     */
+    public Decision decide(Throwable error, int attempt) {
+        FailureClass failureClass = classify(error);
+        if (failureClass == FailureClass.PERMANENT || attempt >= maxAttempts) {
+            return new Decision(failureClass, null);
+        }
+        
+        long base = failureClass == FailureClass.RATE_LIMITED ? rateLimitBaseDelayMs : baseDelayMs;
+        long delayMs = Math.min(maxDelayMs, base << Math.min(attempt - 1, 20));
+        // Equal jitter: keep half the delay, randomize the other half so retries do not arrive together
+        delayMs = delayMs / 2 + ThreadLocalRandom.current().nextLong(delayMs / 2 + 1);
+        if (failureClass == FailureClass.RATE_LIMITED) {
+            // A huge Retry-After must not park the prompt indefinitely
+            delayMs = Math.max(delayMs, Math.min(maxDelayMs, retryAfterMs(error)));
+        }
+        return new Decision(failureClass, Duration.ofMillis(delayMs));
+    }
+    
+    /**
+     * Get the maximum number of attempts per prompt.
+     * 
+     * @return The attempt cap
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+    
+    /**
+     * Classify a failure by the first recognized exception in its cause chain.
+     * Unrecognized failures are treated as transient; the attempt cap bounds the cost.
+     * 
+     * @param error The failure
+     * @return The failure class
+     */
+    public FailureClass classify(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpClientErrorException.TooManyRequests) {
+                return FailureClass.RATE_LIMITED;
+            }
+            if (cause instanceof HttpStatusCodeException statusException) {
+                int status = statusException.getStatusCode().value();
+                return status >= 500 || status == 408 ? FailureClass.TRANSIENT : FailureClass.PERMANENT;
+            }
+            if (cause instanceof GeminiResponseException || cause instanceof GeminiUnavailableException) {
+                return FailureClass.PERMANENT;
+            }
+            if (cause instanceof PromptDeadlineExceededException
+                    || cause instanceof ResourceAccessException
+                    || cause instanceof IOException) {
+                return FailureClass.TRANSIENT;
+            }
+        }
+        return FailureClass.TRANSIENT;
+    }
+    
+    private long retryAfterMs(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpStatusCodeException statusException && statusException.getResponseHeaders() != null) {
+                String retryAfter = statusException.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+                try {
+                    return retryAfter != null ? Long.parseLong(retryAfter.trim()) * 1000 : 0;
+                } catch (NumberFormatException e) {
+                    // An HTTP date instead of seconds; fall back to the computed backoff
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
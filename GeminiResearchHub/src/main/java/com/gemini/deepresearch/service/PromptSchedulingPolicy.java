@@ -0,0 +1,111 @@
+package com.gemini.deepresearch.service;
+
+import com.gemini.deepresearch.model.Prompt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Configuration of prompt scheduling: the priority of each source, the fair-share
+ * weight of each creator, and how fast waiting prompts age into higher priorities.
+ * Higher priorities are processed first; within a priority, creators share the
+ * workers in proportion to their weights. Aging stops at a cap below the interactive
+ * priorities, so a bulk backlog never overtakes newly submitted interactive prompts.
+ */
+@Service
+public class PromptSchedulingPolicy {
+
+    public static final int MIN_PRIORITY = 0;
+    public static final int MAX_PRIORITY = 9;
+    
+    private final Map<String, Integer> sourcePriorities;
+    private final Map<String, Double> creatorWeights;
+    private final int defaultPriority;
+    private final long agingIntervalMs;
+    private final int maxAgedPriority;
+    
+    public PromptSchedulingPolicy(
+            @Value("${prompts.scheduling.source-priorities:WEB:8,TEMPLATE:5,SHEETS:2,FILE:2}") String sourcePriorities,
+            @Value("${prompts.scheduling.default-priority:5}") int defaultPriority,
+            @Value("${prompts.scheduling.creator-weights:}") String creatorWeights,
+            @Value("${prompts.scheduling.aging-interval-ms:600000}") long agingIntervalMs,
+            @Value("${prompts.scheduling.max-aged-priority:7}") int maxAgedPriority) {
+        this.sourcePriorities = new HashMap<>();
+        parse(sourcePriorities).forEach((source, value) ->
+                this.sourcePriorities.put(source.toUpperCase(Locale.ROOT), clamp((int) Double.parseDouble(value))));
+        this.creatorWeights = new HashMap<>();
+        parse(creatorWeights).forEach((creator, value) ->
+                this.creatorWeights.put(creator.toLowerCase(Locale.ROOT), Math.max(0.01, Double.parseDouble(value))));
+        this.defaultPriority = clamp(defaultPriority);
+        this.agingIntervalMs = Math.max(1, agingIntervalMs);
+        this.maxAgedPriority = clamp(maxAgedPriority);
+    }
+    
+    /**
+     * Get the priority a new prompt is stored with.
+     * 
+     * @param explicitPriority Priority requested for the prompt (optional)
+     * @param source Source of the prompt
+     * @return The explicit priority if given, otherwise the priority of the source
+     */
+    public int priorityFor(Integer explicitPriority, String source) {
+        if (explicitPriority != null) {
+            return clamp(explicitPriority);
+        }
+        return source != null
+                ? sourcePriorities.getOrDefault(source.toUpperCase(Locale.ROOT), defaultPriority)
+                : defaultPriority;
+    }
+    
+    /**
+     * Get the priority of a waiting prompt, raised by one level per aging interval
+     * waited so that low-priority prompts are never starved. Aging never raises a prompt
+     * above prompts.scheduling.max-aged-priority; prompts stored with a higher priority keep it.
+     * 
+     * @param prompt The waiting prompt
+     * @param now The current time
+     * @return The effective priority
+     */
+    public long effectivePriority(Prompt prompt, LocalDateTime now) {
+        int base = prompt.getPriority() != null ? prompt.getPriority() : priorityFor(null, prompt.getSource());
+        if (prompt.getCreatedAt() == null) {
+            return base;
+        }
+        long waitedMs = Math.max(0, Duration.between(prompt.getCreatedAt(), now).toMillis());
+        long aged = Math.min(base + waitedMs / agingIntervalMs, maxAgedPriority);
+        return Math.max(base, aged);
+    }
+    
+    /**
+     * Get the fair-share weight of a creator.
+     * 
+     * @param createdBy The creator, or an empty string for prompts without one
+     * @return The weight; 1 unless configured
+     */
+    public double weightOf(String createdBy) {
+        return creatorWeights.getOrDefault(createdBy.toLowerCase(Locale.ROOT), 1.0);
+    }
+    
+    private static int clamp(int priority) {
+        return Math.max(MIN_PRIORITY, Math.min(MAX_PRIORITY, priority));
+    }
+    
+    /**
+     * Parse a comma-separated list of key:value pairs.
+     */
+    private static Map<String, String> parse(String pairs) {
+        Map<String, String> values = new HashMap<>();
+        for (String entry : pairs.split(",")) {
+            int separator = entry.lastIndexOf(':');
+            if (separator > 0) {
+                values.put(entry.substring(0, separator).trim(), entry.substring(separator + 1).trim());
+            }
+        }
+        return values;
+    }
+}
@@ -1,17 +1,27 @@
 package com.gemini.deepresearch.service;
 
+import com.gemini.deepresearch.dto.PromptEvent;
 import com.gemini.deepresearch.dto.PromptRequest;
 import com.gemini.deepresearch.dto.PromptResponse;
+import com.gemini.deepresearch.dto.SheetPrompt;
 import com.gemini.deepresearch.model.Prompt;
 import com.gemini.deepresearch.repository.PromptRepository;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
 /**
@@ -33,6 +43,36 @@ public class PromptService {
     @Autowired
     private TwilioService twilioService;
     
+    @Autowired
+    private SheetWriteBackService sheetWriteBackService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private PromptMetrics promptMetrics;
+    
+    @Autowired
+    private PromptTracing promptTracing;
+    
+    @Autowired
+    private PromptCallGuard promptCallGuard;
+    
+    @Autowired
+    private PromptRetryPolicy promptRetryPolicy;
+    
+    @Autowired
+    private PromptSchedulingPolicy promptSchedulingPolicy;
+    
+    @Autowired
+    private ResearchPipelineService researchPipelineService;
+    
+    @Value("${prompts.processing.timeout-ms:300000}")
+    private long defaultTimeoutMs;
+    
+    @Value("${prompts.recovery.grace-ms:60000}")
+    private long recoveryGraceMs;
+    
     /**
      * Create a new research prompt.
      * 
@@ -42,21 +82,27 @@ public class PromptService {
     @Transactional
     public PromptResponse createPrompt(PromptRequest promptRequest) {
         log.info("Creating new prompt: {}", promptRequest.getContent());
+        String source = promptRequest.getSource() != null ? promptRequest.getSource() : "WEB";
         
         Prompt prompt = Prompt.builder()
                 .content(promptRequest.getContent())
-                .status("PENDING")
-                .source(promptRequest.getSource() != null ? promptRequest.getSource() : "WEB")
+                .status(Prompt.PromptStatus.PENDING)
+                .source(source)
                 .createdBy(promptRequest.getCreatedBy())
+                .traceParent(promptTracing.currentTraceParent())
+                .priority(promptSchedulingPolicy.priorityFor(promptRequest.getPriority(), source))
+                .timeoutSeconds(promptRequest.getTimeoutSeconds())
                 .notificationEmail(promptRequest.isSendEmail() ? promptRequest.getNotificationEmail() : null)
                 .notificationPhone(promptRequest.isSendSms() || promptRequest.isSendWhatsapp() ? promptRequest.getNotificationPhone() : null)
-                .emailSent(false)
-                .smsSent(false)
-                .whatsappSent(false)
+                .sendSms(promptRequest.isSendSms())
+                .sendWhatsapp(promptRequest.isSendWhatsapp())
+                .notificationSent(false)
                 .build();
         
         Prompt savedPrompt = promptRepository.save(prompt);
         log.info("Prompt created with ID: {}", savedPrompt.getId());
+        promptMetrics.recordIngested(savedPrompt.getSource(), 1);
+        publishEvent(savedPrompt, PromptEvent.Type.CREATED);
         
         return PromptResponse.fromEntity(savedPrompt);
     }
@@ -88,20 +134,23 @@ public class PromptService {
      * 
      * @param status The status to filter by
      * @return A list of prompts with the given status
+     * @throws IllegalArgumentException if the status is not a prompt status
      */
     public List<PromptResponse> getPromptsByStatus(String status) {
-        return promptRepository.findByStatus(status).stream()
+        return promptRepository.findByStatus(Prompt.PromptStatus.valueOf(status.toUpperCase())).stream()
                 .map(PromptResponse::fromEntity)
                 .collect(Collectors.toList());
     }
     
     /**
      * Process a specific prompt through the Gemini API.
+     * The prompt is moved to IN_PROGRESS with its deadline before Gemini is called, and the
+     * outcome is stored only if it is still IN_PROGRESS afterwards, so a cancelled or recovered
+     * prompt is never overwritten. No transaction is held open during the call.
      * 
      * @param id The ID of the prompt to process
      * @return The processed prompt, if found and successfully processed
      */
-    @Transactional
     public Optional<PromptResponse> processPrompt(Long id) {
         Optional<Prompt> promptOpt = promptRepository.findById(id);
         
@@ -111,39 +160,214 @@ public class PromptService {
         }
         
         Prompt prompt = promptOpt.get();
-        if (!"PENDING".equals(prompt.getStatus())) {
+        if (prompt.getStatus() != Prompt.PromptStatus.PENDING) {
             log.info("Prompt {} is not in PENDING status, current status: {}", id, prompt.getStatus());
             return Optional.of(PromptResponse.fromEntity(prompt));
         }
         
-        try {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime deadline = startedAt.plus(getTimeout(prompt));
+        if (promptRepository.startProcessing(id, Prompt.PromptStatus.PENDING, Prompt.PromptStatus.IN_PROGRESS,
+                startedAt, deadline) == 0) {
+            log.info("Prompt {} was picked up or cancelled concurrently", id);
+            return getPromptById(id);
+        }
+        prompt.setStatus(Prompt.PromptStatus.IN_PROGRESS);
+        prompt.setStartedAt(startedAt);
+        prompt.setDeadlineAt(deadline);
+        prompt.setAttemptCount((prompt.getAttemptCount() != null ? prompt.getAttemptCount() : 0) + 1);
+        prompt.setNextAttemptAt(null);
+        
+        Span span = promptTracing.startPromptSpan("prompt.process", prompt);
+        try (Tracer.SpanInScope scope = promptTracing.activate(span)) {
             log.info("Processing prompt {}: {}", id, prompt.getContent());
+            promptMetrics.recordQueueTime(prompt);
+            publishEvent(prompt, PromptEvent.Type.IN_PROGRESS);
             
-            // Process the prompt with Gemini API
-            String researchResult = geminiService.processResearchPrompt(prompt.getContent());
+            // Process the prompt with Gemini API, interrupted at the deadline or on cancellation
+            String researchResult = promptCallGuard.call(id, deadline,
+                    () -> researchPipelineService.isEnabled()
+                            ? researchPipelineService.run(prompt)
+                            : geminiService.processResearchPrompt(prompt.getContent()));
             
             // Update the prompt with the result
-            prompt.setResponse(researchResult);
-            prompt.setStatus("COMPLETED");
-            prompt.setProcessedAt(LocalDateTime.now());
-            
-            Prompt savedPrompt = promptRepository.save(prompt);
+            if (!finishProcessing(prompt, Prompt.PromptStatus.COMPLETED, researchResult)) {
+                return getPromptById(id);
+            }
             log.info("Prompt {} processed successfully", id);
+            sheetWriteBackService.enqueue(prompt);
+            publishEvent(prompt, PromptEvent.Type.COMPLETED);
             
             // Send notifications if requested
-            sendNotifications(savedPrompt);
+            sendNotifications(prompt);
             
-            return Optional.of(PromptResponse.fromEntity(savedPrompt));
+            return Optional.of(PromptResponse.fromEntity(prompt));
+        } catch (CancellationException e) {
+            log.info("Processing of prompt {} stopped: prompt was cancelled", id);
+            span.event("cancelled");
+            return getPromptById(id);
         } catch (Exception e) {
             log.error("Error processing prompt {}: {}", id, e.getMessage());
+            span.error(e);
+            return handleFailure(prompt, e);
+        } finally {
+            span.end();
+        }
+    }
+    
+    /**
+     * Cancel a pending or in-progress prompt.
+     * A Gemini call running on this node is interrupted; one running on another node
+     * finishes or times out, and its result is discarded.
+     * 
+     * @param id The ID of the prompt to cancel
+     * @return The prompt after the attempt, if found; its status tells whether it was cancelled
+     */
+    public Optional<PromptResponse> cancelPrompt(Long id) {
+        if (!promptRepository.existsById(id)) {
+            return Optional.empty();
+        }
+        
+        int cancelled = promptRepository.finishIfIn(id,
+                List.of(Prompt.PromptStatus.PENDING, Prompt.PromptStatus.IN_PROGRESS),
+                Prompt.PromptStatus.CANCELLED, LocalDateTime.now());
+        Optional<Prompt> prompt = promptRepository.findById(id);
+        if (cancelled > 0) {
+            boolean interrupted = promptCallGuard.cancel(id);
+            log.info("Prompt {} cancelled{}", id, interrupted ? ", Gemini call interrupted" : "");
+            prompt.ifPresent(cancelledPrompt -> publishEvent(cancelledPrompt, PromptEvent.Type.CANCELLED));
+        }
+        return prompt.map(PromptResponse::fromEntity);
+    }
+    
+    /**
+     * Reset prompts left IN_PROGRESS past their deadline, e.g. by a crash, to PENDING
+     * so that they are processed again. A running call never outlives its deadline,
+     * so the grace period keeps prompts being finished on other nodes untouched.
+     * The lost attempt counts; prompts that have used all attempts are dead-lettered.
+     * 
+     * @return Number of prompts recovered
+     */
+    public int recoverStuckPrompts() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(recoveryGraceMs));
+        int maxAttempts = promptRetryPolicy.getMaxAttempts();
+        
+        int deadLettered = promptRepository.deadLetterStuck(Prompt.PromptStatus.IN_PROGRESS,
+                Prompt.PromptStatus.DEAD_LETTER, cutoff, maxAttempts, "Stuck in progress on the last attempt",
+                LocalDateTime.now());
+        if (deadLettered > 0) {
+            log.warn("Dead-lettered {} prompts stuck in progress on their last attempt", deadLettered);
+        }
+        
+        int recovered = promptRepository.resetStuck(Prompt.PromptStatus.IN_PROGRESS, Prompt.PromptStatus.PENDING,
+                cutoff, maxAttempts);
+        if (recovered > 0) {
+            log.warn("Recovered {} prompts stuck in progress past their deadline", recovered);
+            promptMetrics.recordRecovered(recovered);
+        }
+        return recovered;
+    }
+    
+    /**
+     * Move dead-lettered prompts back to PENDING with a fresh set of attempts.
+     * 
+     * @param ids The prompts to re-drive, or null or empty for all dead-lettered prompts
+     * @return Number of prompts re-driven
+     */
+    public int redriveDeadLetters(List<Long> ids) {
+        int redriven = ids == null || ids.isEmpty()
+                ? promptRepository.redriveAll(Prompt.PromptStatus.DEAD_LETTER, Prompt.PromptStatus.PENDING)
+                : promptRepository.redrive(ids, Prompt.PromptStatus.DEAD_LETTER, Prompt.PromptStatus.PENDING);
+        log.info("Re-drove {} dead-lettered prompts", redriven);
+        return redriven;
+    }
+    
+    /**
+     * Handle a failed attempt: reschedule the prompt with backoff if the failure is transient
+     * or rate-limited and attempts remain; otherwise move it to ERROR (permanent failure)
+     * or DEAD_LETTER (attempts exhausted).
+     * 
+     * @param prompt The prompt being processed
+     * @param error The failure
+     * @return The prompt after the failure
+     */
+    private Optional<PromptResponse> handleFailure(Prompt prompt, Exception error) {
+        PromptRetryPolicy.Decision decision = promptRetryPolicy.decide(error, prompt.getAttemptCount());
+        String message = truncateString("Error processing prompt: " + error.getMessage(), 1000);
+        
+        if (decision.isRetry()) {
+            LocalDateTime nextAttemptAt = LocalDateTime.now().plus(decision.retryDelay());
+            if (promptRepository.scheduleRetry(prompt.getId(), Prompt.PromptStatus.IN_PROGRESS,
+                    Prompt.PromptStatus.PENDING, nextAttemptAt, message) == 0) {
+                log.info("Discarding outcome of prompt {}: it is no longer in progress", prompt.getId());
+                return getPromptById(prompt.getId());
+            }
+            log.warn("Prompt {} failed ({}) on attempt {} of {}, retrying at {}", prompt.getId(),
+                    decision.failureClass(), prompt.getAttemptCount(), promptRetryPolicy.getMaxAttempts(), nextAttemptAt);
+            promptMetrics.recordFailure(decision.failureClass().name(), "retry");
             
-            // Update prompt with error status
-            prompt.setStatus("ERROR");
-            prompt.setResponse("Error processing prompt: " + e.getMessage());
-            Prompt savedPrompt = promptRepository.save(prompt);
-            
-            return Optional.of(PromptResponse.fromEntity(savedPrompt));
+            prompt.setStatus(Prompt.PromptStatus.PENDING);
+            prompt.setNextAttemptAt(nextAttemptAt);
+            prompt.setLastError(message);
+            publishEvent(prompt, PromptEvent.Type.RETRY_SCHEDULED);
+            return Optional.of(PromptResponse.fromEntity(prompt));
+        }
+        
+        Prompt.PromptStatus status = decision.failureClass() == PromptRetryPolicy.FailureClass.PERMANENT
+                ? Prompt.PromptStatus.ERROR : Prompt.PromptStatus.DEAD_LETTER;
+        LocalDateTime completedAt = LocalDateTime.now();
+        if (promptRepository.failProcessing(prompt.getId(), Prompt.PromptStatus.IN_PROGRESS, status,
+                message, completedAt) == 0) {
+            log.info("Discarding outcome of prompt {}: it is no longer in progress", prompt.getId());
+            return getPromptById(prompt.getId());
+        }
+        prompt.setResult(null);
+        prompt.setStatus(status);
+        prompt.setLastError(message);
+        prompt.setCompletedAt(completedAt);
+        promptMetrics.recordFailure(decision.failureClass().name(), status.name().toLowerCase());
+        sheetWriteBackService.enqueue(prompt);
+        publishEvent(prompt, PromptEvent.Type.ERROR);
+        
+        return Optional.of(PromptResponse.fromEntity(prompt));
+    }
+    
+    /**
+     * Store the result of an in-progress prompt and apply it to the given entity.
+     * 
+     * @param prompt The prompt being processed
+     * @param status The final status
+     * @param result The result
+     * @return Whether the outcome was stored; false if the prompt is no longer in progress
+     */
+    private boolean finishProcessing(Prompt prompt, Prompt.PromptStatus status, String result) {
+        LocalDateTime completedAt = LocalDateTime.now();
+        int updated = promptRepository.finishProcessing(prompt.getId(), Prompt.PromptStatus.IN_PROGRESS,
+                status, result, completedAt);
+        if (updated == 0) {
+            log.info("Discarding outcome of prompt {}: it is no longer in progress", prompt.getId());
+            return false;
+        }
+        
+        prompt.setResult(result);
+        prompt.setStatus(status);
+        prompt.setCompletedAt(completedAt);
+        return true;
+    }
+    
+    /**
+     * Get the processing deadline of a prompt, relative to the start of processing.
+     * 
+     * @param prompt The prompt
+     * @return The prompt's own timeout, or the configured default for single calls or the pipeline
+     */
+    private Duration getTimeout(Prompt prompt) {
+        if (prompt.getTimeoutSeconds() != null) {
+            return Duration.ofSeconds(prompt.getTimeoutSeconds());
         }
+        return researchPipelineService.isEnabled()
+                ? researchPipelineService.getDefaultTimeout()
+                : Duration.ofMillis(defaultTimeoutMs);
     }
     
     /**
@@ -158,137 +382,240 @@ public class PromptService {
     @Transactional
     public int createBatchPrompts(List<String> prompts, String source, 
                                   String notificationEmail, String notificationPhone) {
+        return createBatchPrompts(prompts, source, null, notificationEmail, notificationPhone);
+    }
+    
+    /**
+     * Process batch uploads of prompts on behalf of a creator.
+     * All prompts of the batch are inserted with JDBC batch statements.
+     * 
+     * @param prompts List of prompt contents
+     * @param source Source of the prompts (e.g., "FILE", "TEMPLATE")
+     * @param createdBy Creator of the prompts (optional)
+     * @param notificationEmail Email for notifications (optional)
+     * @param notificationPhone Phone for notifications (optional)
+     * @return Number of prompts created
+     */
+    @Transactional
+    public int createBatchPrompts(List<String> prompts, String source, String createdBy,
+                                  String notificationEmail, String notificationPhone) {
+        return insertBatchPrompts(prompts, source, createdBy, notificationEmail, notificationPhone).size();
+    }
+    
+    /**
+     * Process an uploaded file of prompts, returning the IDs of the created prompts
+     * so that callers can follow each one.
+     * 
+     * @param prompts List of prompt contents
+     * @param notificationEmail Email for notifications (optional)
+     * @param notificationPhone Phone for notifications (optional)
+     * @return The IDs of the created prompts, in the order of the contents
+     */
+    @Transactional
+    public List<Long> createFilePrompts(List<String> prompts, String notificationEmail, String notificationPhone) {
+        return insertBatchPrompts(prompts, "FILE", null, notificationEmail, notificationPhone).stream()
+                .map(Prompt::getId)
+                .toList();
+    }
+    
+    /**
+     * Insert a batch of prompts with JDBC batch statements and announce it.
+     * 
+     * @param prompts List of prompt contents
+     * @param source Source of the prompts
+     * @param createdBy Creator of the prompts (optional)
+     * @param notificationEmail Email for notifications (optional)
+     * @param notificationPhone Phone for notifications (optional)
+     * @return The inserted prompts, with their generated IDs
+     */
+    private List<Prompt> insertBatchPrompts(List<String> prompts, String source, String createdBy,
+                                            String notificationEmail, String notificationPhone) {
         if (prompts == null || prompts.isEmpty()) {
-            return 0;
+            return List.of();
         }
         
-        int count = 0;
+        List<Prompt> batch = new ArrayList<>(prompts.size());
+        String traceParent = promptTracing.currentTraceParent();
+        int priority = promptSchedulingPolicy.priorityFor(null, source);
         for (String content : prompts) {
             if (content != null && !content.trim().isEmpty()) {
-                Prompt prompt = Prompt.builder()
+                batch.add(Prompt.builder()
                         .content(content.trim())
-                        .status("PENDING")
+                        .status(Prompt.PromptStatus.PENDING)
                         .source(source)
+                        .createdBy(createdBy)
+                        .priority(priority)
+                        .traceParent(traceParent)
                         .notificationEmail(notificationEmail)
                         .notificationPhone(notificationPhone)
-                        .emailSent(false)
-                        .smsSent(false)
-                        .whatsappSent(false)
-                        .build();
-                
-                promptRepository.save(prompt);
-                count++;
+                        .sendSms(notificationPhone != null)
+                        .sendWhatsapp(notificationPhone != null)
+                        .notificationSent(false)
+                        .build());
             }
         }
         
+        int count = promptRepository.insertAll(batch);
+        
         log.info("Created {} prompts from {} source", count, source);
-        return count;
+        promptMetrics.recordIngested(source, count);
+        publishBatchEvent(source, count);
+        return batch;
     }
     
     /**
-     * Process all pending prompts.
-     * This method is called by the scheduler.
+     * Create prompts imported from a Google Sheet, remembering the source cell
+     * of each prompt so that results can be written back next to it.
+     * Per-row creator and notification values override the given defaults.
      * 
-     * @return Number of prompts processed
+     * @param spreadsheetId The ID of the source spreadsheet
+     * @param prompts The prompts and their source cells
+     * @param notificationEmail Email for notifications (optional)
+     * @param notificationPhone Phone for notifications (optional)
+     * @return Number of prompts created
      */
     @Transactional
-    public int processAllPendingPrompts() {
-        List<Prompt> pendingPrompts = promptRepository.findPromptsToProcess();
-        
-        if (pendingPrompts.isEmpty()) {
-            log.info("No pending prompts to process");
+    public int createSheetPrompts(String spreadsheetId, List<SheetPrompt> prompts,
+                                  String notificationEmail, String notificationPhone) {
+        if (prompts == null || prompts.isEmpty()) {
             return 0;
         }
         
-        log.info("Processing {} pending prompts", pendingPrompts.size());
-        int count = 0;
-        
-        for (Prompt prompt : pendingPrompts) {
-            try {
-                // Process the prompt with Gemini API
-                String researchResult = geminiService.processResearchPrompt(prompt.getContent());
-                
-                // Update the prompt with the result
-                prompt.setResponse(researchResult);
-                prompt.setStatus("COMPLETED");
-                prompt.setProcessedAt(LocalDateTime.now());
-                
-                promptRepository.save(prompt);
-                
-                // Send notifications if requested
-                sendNotifications(prompt);
-                
-                count++;
-                log.info("Processed pending prompt {}", prompt.getId());
-            } catch (Exception e) {
-                log.error("Error processing pending prompt {}: {}", prompt.getId(), e.getMessage());
-                
-                // Update prompt with error status
-                prompt.setStatus("ERROR");
-                prompt.setResponse("Error processing prompt: " + e.getMessage());
-                promptRepository.save(prompt);
+        List<Prompt> batch = new ArrayList<>(prompts.size());
+        String traceParent = promptTracing.currentTraceParent();
+        int priority = promptSchedulingPolicy.priorityFor(null, "SHEETS");
+        for (SheetPrompt sheetPrompt : prompts) {
+            String content = sheetPrompt.getContent();
+            if (content != null && !content.trim().isEmpty()) {
+                String phone = sheetPrompt.getNotificationPhone() != null
+                        ? sheetPrompt.getNotificationPhone() : notificationPhone;
+                batch.add(Prompt.builder()
+                        .content(content.trim())
+                        .status(Prompt.PromptStatus.PENDING)
+                        .source("SHEETS")
+                        .createdBy(sheetPrompt.getCreatedBy())
+                        .notificationEmail(sheetPrompt.getNotificationEmail() != null
+                                ? sheetPrompt.getNotificationEmail() : notificationEmail)
+                        .notificationPhone(phone)
+                        .sendSms(phone != null)
+                        .sendWhatsapp(phone != null)
+                        .sheetSpreadsheetId(spreadsheetId)
+                        .sheetCell(sheetPrompt.getCell())
+                        .sheetOutputCell(sheetPrompt.getOutputCell())
+                        .priority(priority)
+                        .traceParent(traceParent)
+                        .notificationSent(false)
+                        .build());
             }
         }
         
-        log.info("Completed processing {} out of {} pending prompts", count, pendingPrompts.size());
+        int count = promptRepository.insertAll(batch);
+        
+        log.info("Created {} prompts from spreadsheet {}", count, spreadsheetId);
+        promptMetrics.recordIngested("SHEETS", count);
+        publishBatchEvent("SHEETS", count);
         return count;
     }
     
     /**
-     * Send notifications for a completed prompt.
+     * Send notifications for a completed prompt, once per prompt.
      * 
      * @param prompt The processed prompt
      */
     private void sendNotifications(Prompt prompt) {
-        // Only send notifications for completed prompts
-        if (!"COMPLETED".equals(prompt.getStatus())) {
+        // Only send notifications for completed prompts, and only once
+        if (prompt.getStatus() != Prompt.PromptStatus.COMPLETED || Boolean.TRUE.equals(prompt.getNotificationSent())) {
             return;
         }
         
-        // Send email notification if requested and not already sent
-        if (prompt.getNotificationEmail() != null && !prompt.getEmailSent()) {
-            boolean emailSent = emailService.sendResearchReport(
+        boolean sent = false;
+        
+        // Send email notification if requested
+        if (prompt.getNotificationEmail() != null) {
+            sent |= sendNotification("email", () -> emailService.sendResearchReport(
                     prompt.getNotificationEmail(),
                     "Your Research Report is Ready",
                     prompt.getContent(),
-                    prompt.getResponse()
-            );
-            
-            if (emailSent) {
-                prompt.setEmailSent(true);
-                promptRepository.save(prompt);
-            }
+                    prompt.getResult()
+            ));
         }
         
-        // Send SMS notification if requested and not already sent
-        if (prompt.getNotificationPhone() != null && !prompt.getSmsSent()) {
-            boolean smsSent = twilioService.sendSms(
-                    prompt.getNotificationPhone(),
-                    "Your research report for prompt '" + truncateString(prompt.getContent(), 50) + 
-                    "' is now ready. Please check your email or the web dashboard to view it."
-            );
-            
-            if (smsSent) {
-                prompt.setSmsSent(true);
-                promptRepository.save(prompt);
-            }
+        String message = "Your research report for prompt '" + truncateString(prompt.getContent(), 50) + 
+                "' is now ready. Please check your email or the web dashboard to view it.";
+        
+        // Send SMS notification if requested
+        if (prompt.getNotificationPhone() != null && Boolean.TRUE.equals(prompt.getSendSms())) {
+            sent |= sendNotification("sms", () -> twilioService.sendSms(prompt.getNotificationPhone(), message));
         }
         
-        // Send WhatsApp notification if requested and not already sent
-        if (prompt.getNotificationPhone() != null && !prompt.getWhatsappSent()) {
-            boolean whatsappSent = twilioService.sendWhatsApp(
-                    prompt.getNotificationPhone(),
-                    "Your research report for prompt '" + truncateString(prompt.getContent(), 50) + 
-                    "' is now ready. Please check your email or the web dashboard to view it."
-            );
-            
-            if (whatsappSent) {
-                prompt.setWhatsappSent(true);
-                promptRepository.save(prompt);
-            }
+        // Send WhatsApp notification if requested
+        if (prompt.getNotificationPhone() != null && Boolean.TRUE.equals(prompt.getSendWhatsapp())) {
+            sent |= sendNotification("whatsapp", () -> twilioService.sendWhatsApp(prompt.getNotificationPhone(), message));
+        }
+        
+        if (sent) {
+            prompt.setNotificationSent(true);
+            promptRepository.save(prompt);
+        }
+    }
+    
+    /**
+     * Send a notification in its own span, recording its latency and outcome.
+     * 
+     * @param channel "email", "sms" or "whatsapp"
+     * @param send Sends the notification and returns whether it was sent
+     * @return Whether the notification was sent
+     */
+    private boolean sendNotification(String channel, BooleanSupplier send) {
+        return promptTracing.inSpan("notification.send", "channel", channel,
+                () -> promptMetrics.timeNotification(channel, send));
+    }
+    
+    /**
+     * Publish a prompt event to live subscribers once the current transaction commits.
+     * 
+     * @param prompt The prompt
+     * @param type The event type
+     */
+    private void publishEvent(Prompt prompt, PromptEvent.Type type) {
+        eventPublisher.publishEvent(buildEvent(prompt, type));
+    }
+    
+    /**
+     * Publish a single event for a batch of created prompts, instead of one event per prompt.
+     * 
+     * @param source Source of the prompts
+     * @param count Number of prompts created
+     */
+    private void publishBatchEvent(String source, int count) {
+        if (count > 0) {
+            eventPublisher.publishEvent(PromptEvent.builder()
+                    .type(PromptEvent.Type.BATCH_CREATED)
+                    .source(source)
+                    .count(count)
+                    .timestamp(LocalDateTime.now())
+                    .build());
         }
     }
     
+    /**
+     * Build a prompt event from the current state of a prompt.
+     * 
+     * @param prompt The prompt
+     * @param type The event type
+     * @return The event
+     */
+    private PromptEvent buildEvent(Prompt prompt, PromptEvent.Type type) {
+        return PromptEvent.builder()
+                .type(type)
+                .promptId(prompt.getId())
+                .status(String.valueOf(prompt.getStatus()))
+                .source(prompt.getSource())
+                .result(type == PromptEvent.Type.COMPLETED ? prompt.getResult() : null)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+    
     /**
      * Helper method to truncate a string to a maximum length.
      * 
@@ -0,0 +1,112 @@
+package com.gemini.deepresearch.service;
+
+import com.gemini.deepresearch.model.Prompt;
+import io.micrometer.tracing.Link;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Tracing helpers for the prompt lifecycle.
+ * <p>
+ * Prompts are handed from ingestion to processing through the database, so the
+ * W3C traceparent of the ingestion span is stored with each prompt. Processing
+ * spans are then started as children of that context, which puts ingestion, the
+ * Gemini call and the notifications of a prompt into a single trace. The span of
+ * the scheduler run that picked the prompt up is attached as a link.
+ */
+@Service
+@Slf4j
+public class PromptTracing {
+
+    private static final String TRACEPARENT = "traceparent";
+    
+    @Autowired
+    private Tracer tracer;
+    
+    @Autowired
+    private Propagator propagator;
+    
+    /**
+     * Get the W3C traceparent of the current span, to be stored with new prompts.
+     * 
+     * @return The traceparent, or null if there is no current span
+     */
+    public String currentTraceParent() {
+        Span span = tracer.currentSpan();
+        if (span == null) {
+            return null;
+        }
+        Map<String, String> headers = new HashMap<>();
+        propagator.inject(span.context(), headers, Map::put);
+        return headers.get(TRACEPARENT);
+    }
+    
+    /**
+     * Start a span for work on a prompt, continuing the trace the prompt was created in.
+     * The caller must put the span in scope with {@link #activate(Span)} and end it.
+     * 
+     * @param name The span name
+     * @param prompt The prompt
+     * @return The started span
+     */
+    public Span startPromptSpan(String name, Prompt prompt) {
+        Span current = tracer.currentSpan();
+        Span.Builder builder;
+        if (prompt.getTraceParent() != null) {
+            builder = propagator.extract(prompt.getTraceParent(),
+                    (traceParent, key) -> TRACEPARENT.equals(key) ? traceParent : null);
+            if (current != null) {
+                builder.addLink(new Link(current.context()));
+            }
+        } else {
+            builder = tracer.spanBuilder();
+            if (current != null) {
+                builder.setParent(current.context());
+            }
+        }
+        
+        return builder.name(name)
+                .tag("prompt.id", String.valueOf(prompt.getId()))
+                .tag("prompt.source", String.valueOf(prompt.getSource()))
+                .start();
+    }
+    
+    /**
+     * Put a span in scope on the current thread.
+     * 
+     * @param span The span
+     * @return The scope, to be closed when the work is done
+     */
+    public Tracer.SpanInScope activate(Span span) {
+        return tracer.withSpan(span);
+    }
+    
+    /**
+     * Run work in a child span of the current span.
+     * 
+     * @param name The span name
+     * @param tagKey Key of a tag to add to the span
+     * @param tagValue Value of the tag
+     * @param work The work to run
+     * @return The result of the work
+     */
+    public <T> T inSpan(String name, String tagKey, String tagValue, Supplier<T> work) {
+        Span span = tracer.nextSpan().name(name).tag(tagKey, tagValue).start();
+        try (Tracer.SpanInScope scope = tracer.withSpan(span)) {
+            return work.get();
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.gemini.deepresearch.service;
+
+import com.gemini.deepresearch.model.Prompt;
+import com.gemini.deepresearch.repository.PromptRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Worker pool that processes pending prompts off the scheduler thread.
+ * On platform threads a fixed number of workers is used (one by default); with
+ * spring.threads.virtual.enabled every prompt gets its own virtual thread, up to a
+ * concurrency limit.
+ * <p>
+ * Prompts are handed to workers one at a time as slots free up, in the order chosen by
+ * a {@link FairShareQueue}: by priority, then fairly across creators, so a large upload
+ * does not hold up an interactive prompt submitted after it.
+ */
+@Service
+@Slf4j
+public class PromptWorkerPool {
+
+    @Autowired
+    private PromptService promptService;
+    
+    @Autowired
+    private PromptRepository promptRepository;
+    
+    @Value("${prompts.scheduling.lookahead:20}")
+    private int lookahead;
+    
+    private final Executor executor;
+    private final int capacity;
+    private final FairShareQueue queue;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock dispatchLock = new ReentrantLock();
+    private volatile boolean shuttingDown;
+    
+    public PromptWorkerPool(PromptSchedulingPolicy schedulingPolicy,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                            @Value("${prompts.processing.worker-threads:1}") int workerThreads,
+                            @Value("${prompts.processing.virtual-concurrency:8}") int virtualConcurrency) {
+        this.queue = new FairShareQueue(schedulingPolicy);
+        if (virtualThreads) {
+            // The limit is enforced by dispatch, not by the executor: a worker dispatches
+            // its successor before its own slot would be released by a throttle
+            SimpleAsyncTaskExecutor virtualExecutor = new SimpleAsyncTaskExecutor("Prompt-Worker-");
+            virtualExecutor.setVirtualThreads(true);
+            virtualExecutor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+            this.executor = virtualExecutor;
+            this.capacity = Math.max(1, virtualConcurrency);
+        } else {
+            ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+            pool.setCorePoolSize(workerThreads);
+            pool.setMaxPoolSize(workerThreads);
+            pool.setThreadNamePrefix("Prompt-Worker-");
+            pool.setTaskDecorator(new ContextPropagatingTaskDecorator());
+            pool.setWaitForTasksToCompleteOnShutdown(true);
+            pool.initialize();
+            this.executor = pool;
+            this.capacity = Math.max(1, workerThreads);
+        }
+    }
+    
+    /**
+     * Reload the queue of ready prompts and fill all free worker slots.
+     * 
+     * @return Number of prompts submitted
+     */
+    public int submitPending() {
+        dispatchLock.lock();
+        try {
+            reload();
+            int submitted = dispatch();
+            if (submitted > 0) {
+                log.info("Submitted {} pending prompts for processing ({} in flight, {} creators waiting)",
+                        submitted, inFlight.size(), queue.getActiveLaneCount());
+            }
+            return submitted;
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+    
+    /**
+     * Get the number of prompts submitted but not yet processed.
+     * 
+     * @return The in-flight count
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        } else if (executor instanceof SimpleAsyncTaskExecutor virtualExecutor) {
+            virtualExecutor.close();
+        }
+    }
+    
+    /**
+     * Hand queued prompts to workers until all slots are busy. Reloads the queue
+     * once if it runs dry, so freed slots do not wait for the next scheduler run.
+     * Must be called with the dispatch lock held.
+     * 
+     * @return Number of prompts submitted
+     */
+    private int dispatch() {
+        int submitted = 0;
+        boolean reloaded = false;
+        
+        while (!shuttingDown && inFlight.size() < capacity) {
+            Prompt next = queue.poll(LocalDateTime.now(), inFlight);
+            if (next == null) {
+                if (reloaded) {
+                    break;
+                }
+                reload();
+                reloaded = true;
+                continue;
+            }
+            
+            Long id = next.getId();
+            inFlight.add(id);
+            try {
+                executor.execute(() -> process(id));
+                submitted++;
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(id);
+                log.warn("Prompt worker pool rejected prompt {}: {}", id, e.getMessage());
+                break;
+            }
+        }
+        return submitted;
+    }
+    
+    /**
+     * Load the first ready prompts of every creator into the queue.
+     */
+    private void reload() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, List<Prompt>> readyByCreator = new HashMap<>();
+        for (String createdBy : promptRepository.findReadyCreators(Prompt.PromptStatus.PENDING, now)) {
+            readyByCreator.put(createdBy, promptRepository.findReadyByCreator(Prompt.PromptStatus.PENDING, now,
+                    createdBy, PageRequest.of(0, lookahead)));
+        }
+        queue.reload(readyByCreator);
+    }
+    
+    private void process(Long id) {
+        try {
+            promptService.processPrompt(id);
+        } catch (Exception e) {
+            log.error("Error processing pending prompt {}: {}", id, e.getMessage());
+        } finally {
+            inFlight.remove(id);
+        }
+        
+        // Hand the freed slot to the next prompt in line
+        dispatchLock.lock();
+        try {
+            dispatch();
+        } catch (Exception e) {
+            log.error("Error dispatching pending prompts: {}", e.getMessage());
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package com.gemini.deepresearch.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gemini.deepresearch.dto.PromptEvent;
+import com.gemini.deepresearch.model.Prompt;
+import com.gemini.deepresearch.model.ResearchStage;
+import com.gemini.deepresearch.repository.ResearchStageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Multi-stage deep-research pipeline.
+ * <p>
+ * A prompt is first broken into sub-questions (plan). The sub-questions are researched
+ * concurrently, at most research.pipeline.parallelism at a time per prompt, and every
+ * finding is pushed to live subscribers as a PARTIAL_RESULT event. A synthesis stage then
+ * combines the findings into the report.
+ * <p>
+ * Every stage is checkpointed in research_stages. When a prompt is retried, completed
+ * stages are reused and only the failed ones run again; a transient stage failure is also
+ * retried in place. Research stages are additionally served from a cache of completed
+ * stages with the same input, of any prompt, for research.pipeline.cache-ttl-ms.
+ * <p>
+ * Interrupting the calling thread (deadline or cancellation) cancels the running stages.
+ */
+@Service
+@Slf4j
+public class ResearchPipelineService {
+
+    private static final String PLAN_STAGE = "plan";
+    private static final String RESEARCH_STAGE = "research";
+    private static final String SYNTHESIS_STAGE = "synthesis";
+    
+    @Autowired
+    private GeminiService geminiService;
+    
+    @Autowired
+    private ResearchStageRepository stageRepository;
+    
+    @Autowired
+    private PromptRetryPolicy promptRetryPolicy;
+    
+    @Autowired
+    private PromptMetrics promptMetrics;
+    
+    @Autowired
+    private PromptTracing promptTracing;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${research.pipeline.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${research.pipeline.max-sub-questions:5}")
+    private int maxSubQuestions;
+    
+    @Value("${research.pipeline.parallelism:3}")
+    private int parallelism;
+    
+    @Value("${research.pipeline.stage-attempts:2}")
+    private int stageAttempts;
+    
+    @Value("${research.pipeline.cache-ttl-ms:86400000}")
+    private long cacheTtlMs;
+    
+    @Value("${research.pipeline.timeout-ms:1200000}")
+    private long timeoutMs;
+    
+    private final Executor executor;
+    
+    public ResearchPipelineService(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                   @Value("${research.pipeline.threads:8}") int threads) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor virtualExecutor = new SimpleAsyncTaskExecutor("Research-Stage-");
+            virtualExecutor.setVirtualThreads(true);
+            virtualExecutor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+            this.executor = virtualExecutor;
+        } else {
+            ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+            pool.setCorePoolSize(threads);
+            pool.setMaxPoolSize(threads);
+            pool.setThreadNamePrefix("Research-Stage-");
+            pool.setTaskDecorator(new ContextPropagatingTaskDecorator());
+            pool.initialize();
+            this.executor = pool;
+        }
+    }
+    
+    /**
+     * Check whether prompts are processed through the pipeline instead of a single Gemini call.
+     * 
+     * @return Whether the pipeline is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Get the default deadline of a prompt run through the pipeline. It covers the plan,
+     * every round of research stages and the synthesis, each with its in-place retries.
+     * 
+     * @return The default pipeline deadline
+     */
+    public Duration getDefaultTimeout() {
+        return Duration.ofMillis(timeoutMs);
+    }
+    
+    /**
+     * Run the pipeline for a prompt.
+     * 
+     * @param prompt The prompt being processed
+     * @return The research report
+     * @throws RuntimeException the failure of the first failed stage, once all running stages have finished
+     */
+    public String run(Prompt prompt) {
+        List<String> questions = plan(prompt);
+        List<String> findings = research(prompt, questions);
+        if (questions.size() == 1) {
+            // Nothing to combine
+            return findings.get(0);
+        }
+        return synthesize(prompt, questions, findings);
+    }
+    
+    /**
+     * Delete checkpoints that are too old to be reused.
+     */
+    @Scheduled(fixedDelayString = "${research.pipeline.purge-interval-ms:3600000}")
+    public void purgeExpiredStages() {
+        int deleted = stageRepository.deleteUpdatedBefore(LocalDateTime.now().minus(Duration.ofMillis(cacheTtlMs)));
+        if (deleted > 0) {
+            log.info("Deleted {} expired research stage checkpoints", deleted);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        } else if (executor instanceof SimpleAsyncTaskExecutor virtualExecutor) {
+            virtualExecutor.close();
+        }
+    }
+    
+    /**
+     * Break the prompt into sub-questions.
+     * 
+     * @param prompt The prompt
+     * @return The sub-questions, or the prompt itself if it could not be broken down
+     */
+    private List<String> plan(Prompt prompt) {
+        String request = "Break the following research request into at most " + maxSubQuestions
+                + " focused, independent sub-questions that together cover it. "
+                + "Respond only with a JSON array of strings.\n\nResearch request:\n" + prompt.getContent();
+        String output = runStage(prompt, PLAN_STAGE, PLAN_STAGE, request, false);
+        
+        List<String> questions = parseQuestions(output);
+        if (questions.isEmpty()) {
+            log.info("Research plan of prompt {} has no sub-questions, researching the prompt as a whole", prompt.getId());
+            return List.of(prompt.getContent());
+        }
+        log.info("Research plan of prompt {}: {} sub-questions", prompt.getId(), questions.size());
+        return questions;
+    }
+    
+    /**
+     * Research the sub-questions concurrently, at most {@code parallelism} at a time.
+     * A failed sub-question does not stop the others, so that their results are
+     * checkpointed before the failure is reported.
+     * 
+     * @param prompt The prompt
+     * @param questions The sub-questions
+     * @return The findings, in the order of the sub-questions
+     */
+    private List<String> research(Prompt prompt, List<String> questions) {
+        ExecutorCompletionService<String> completionService = new ExecutorCompletionService<>(executor);
+        Map<Future<String>, Integer> running = new HashMap<>();
+        String[] findings = new String[questions.size()];
+        RuntimeException failure = null;
+        int next = 0;
+        
+        try {
+            while (next < questions.size() || !running.isEmpty()) {
+                while (next < questions.size() && running.size() < parallelism) {
+                    int index = next++;
+                    String question = questions.get(index);
+                    running.put(completionService.submit(() -> {
+                        String finding = runStage(prompt, RESEARCH_STAGE + "-" + (index + 1), RESEARCH_STAGE,
+                                researchRequest(prompt, question), true);
+                        publishPartialResult(prompt, question, finding);
+                        return finding;
+                    }), index);
+                }
+                
+                Future<String> finished = completionService.take();
+                int index = running.remove(finished);
+                try {
+                    findings[index] = finished.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof RuntimeException runtimeException
+                                ? runtimeException : new RuntimeException(e.getCause());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // Deadline or cancellation: keep the interrupt for the caller and stop the running stages
+            Thread.currentThread().interrupt();
+            running.keySet().forEach(future -> future.cancel(true));
+            throw new RuntimeException("Research of prompt " + prompt.getId() + " was interrupted", e);
+        }
+        
+        if (failure != null) {
+            throw failure;
+        }
+        return List.of(findings);
+    }
+    
+    /**
+     * Combine the findings into the final report.
+     * 
+     * @param prompt The prompt
+     * @param questions The sub-questions
+     * @param findings The findings, in the order of the sub-questions
+     * @return The report
+     */
+    private String synthesize(Prompt prompt, List<String> questions, List<String> findings) {
+        StringBuilder request = new StringBuilder()
+                .append("Write a comprehensive research report answering the research request below, ")
+                .append("based on the findings for each of its sub-questions. Reconcile conflicting findings ")
+                .append("and point out open questions.\n\nResearch request:\n")
+                .append(prompt.getContent())
+                .append("\n\nFindings:\n");
+        for (int i = 0; i < questions.size(); i++) {
+            request.append("\n### ").append(questions.get(i)).append("\n\n").append(findings.get(i)).append('\n');
+        }
+        return runStage(prompt, SYNTHESIS_STAGE, SYNTHESIS_STAGE, request.toString(), false);
+    }
+    
+    /**
+     * Run a stage, reusing its checkpoint or a cached result for the same input if there is one.
+     * Transient failures are retried in place up to {@code stageAttempts} times.
+     * 
+     * @param prompt The prompt
+     * @param stageKey Key of the stage within the prompt
+     * @param kind "plan", "research" or "synthesis"
+     * @param request The request sent to Gemini
+     * @param cacheable Whether results of other prompts may be reused
+     * @return The stage output
+     */
+    private String runStage(Prompt prompt, String stageKey, String kind, String request, boolean cacheable) {
+        String inputHash = hash(kind, request);
+        Optional<ResearchStage> checkpoint = stageRepository.findByPromptIdAndStageKey(prompt.getId(), stageKey);
+        if (checkpoint.isPresent() && checkpoint.get().getStatus() == ResearchStage.StageStatus.COMPLETED
+                && inputHash.equals(checkpoint.get().getInputHash())) {
+            promptMetrics.recordResearchStageReused(kind, "checkpoint");
+            return checkpoint.get().getOutput();
+        }
+        
+        if (cacheable) {
+            Optional<ResearchStage> cached = stageRepository.findFirstByInputHashAndStatusAndUpdatedAtAfterOrderByUpdatedAtDesc(
+                    inputHash, ResearchStage.StageStatus.COMPLETED, LocalDateTime.now().minus(Duration.ofMillis(cacheTtlMs)));
+            if (cached.isPresent()) {
+                promptMetrics.recordResearchStageReused(kind, "cache");
+                saveCheckpoint(checkpoint, prompt.getId(), stageKey, inputHash, ResearchStage.StageStatus.COMPLETED,
+                        cached.get().getOutput(), null, 0);
+                return cached.get().getOutput();
+            }
+        }
+        
+        int previousAttempts = checkpoint.map(ResearchStage::getAttempts).orElse(0);
+        RuntimeException failure = null;
+        int attemptsMade = 0;
+        for (int attempt = 1; attempt <= stageAttempts; attempt++) {
+            attemptsMade = attempt;
+            long start = System.nanoTime();
+            try {
+                String output = promptTracing.inSpan("research.stage", "stage", stageKey,
+                        () -> geminiService.getResearchResult(request));
+                promptMetrics.recordResearchStage(kind, "success", System.nanoTime() - start);
+                saveCheckpoint(checkpoint, prompt.getId(), stageKey, inputHash, ResearchStage.StageStatus.COMPLETED,
+                        output, null, previousAttempts + attempt);
+                return output;
+            } catch (RuntimeException e) {
+                promptMetrics.recordResearchStage(kind, "error", System.nanoTime() - start);
+                failure = e;
+                if (Thread.currentThread().isInterrupted()
+                        || promptRetryPolicy.classify(e) != PromptRetryPolicy.FailureClass.TRANSIENT) {
+                    break;
+                }
+                log.warn("Research stage {} of prompt {} failed on attempt {}: {}",
+                        stageKey, prompt.getId(), attempt, e.getMessage());
+            }
+        }
+        
+        saveCheckpoint(checkpoint, prompt.getId(), stageKey, inputHash, ResearchStage.StageStatus.FAILED, null,
+                truncate(failure.getMessage(), 1000), previousAttempts + attemptsMade);
+        throw failure;
+    }
+    
+    private void saveCheckpoint(Optional<ResearchStage> existing, Long promptId, String stageKey, String inputHash,
+                                ResearchStage.StageStatus status, String output, String error, int attempts) {
+        ResearchStage stage = existing.orElseGet(() -> ResearchStage.builder()
+                .promptId(promptId)
+                .stageKey(stageKey)
+                .build());
+        stage.setInputHash(inputHash);
+        stage.setStatus(status);
+        stage.setOutput(output);
+        stage.setError(error);
+        stage.setAttempts(attempts);
+        stageRepository.save(stage);
+    }
+    
+    private void publishPartialResult(Prompt prompt, String question, String finding) {
+        eventPublisher.publishEvent(PromptEvent.builder()
+                .type(PromptEvent.Type.PARTIAL_RESULT)
+                .promptId(prompt.getId())
+                .status(String.valueOf(prompt.getStatus()))
+                .source(prompt.getSource())
+                .result("### " + question + "\n\n" + finding)
+                .timestamp(LocalDateTime.now())
+                .build());
+    }
+    
+    private String researchRequest(Prompt prompt, String question) {
+        return "Research the following question in depth, as part of the larger research request given for context. "
+                + "Give concrete facts, figures and sources.\n\nQuestion:\n" + question
+                + "\n\nResearch request:\n" + prompt.getContent();
+    }
+    
+    /**
+     * Parse the sub-questions from the plan: a JSON array, possibly wrapped in text or
+     * a code fence, or else one question per line.
+     * 
+     * @param plan The plan stage output
+     * @return At most {@code maxSubQuestions} sub-questions
+     */
+    private List<String> parseQuestions(String plan) {
+        List<String> questions = new ArrayList<>();
+        if (plan == null) {
+            return questions;
+        }
+        
+        int start = plan.indexOf('[');
+        int end = plan.lastIndexOf(']');
+        if (start >= 0 && end > start) {
+            try {
+                questions.addAll(objectMapper.readValue(plan.substring(start, end + 1), new TypeReference<List<String>>() { }));
+            } catch (Exception e) {
+                log.debug("Research plan is not a JSON array: {}", e.getMessage());
+            }
+        }
+        if (questions.isEmpty()) {
+            for (String line : plan.split("\n")) {
+                String question = line.replaceFirst("^\\s*([-*]|\\d+[.)])\\s*", "").trim();
+                if (question.endsWith("?")) {
+                    questions.add(question);
+                }
+            }
+        }
+        
+        questions.removeIf(question -> question == null || question.isBlank());
+        return questions.size() > maxSubQuestions ? new ArrayList<>(questions.subList(0, maxSubQuestions)) : questions;
+    }
+    
+    /**
+     * Hash a stage input.
+     * 
+     * @param kind The stage kind
+     * @param request The request sent to Gemini
+     * @return The hex-encoded SHA-256 hash
+     */
+    private static String hash(String kind, String request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(kind.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(request.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    private static String truncate(String input, int maxLength) {
+        if (input == null || input.length() <= maxLength) {
+            return input;
+        }
+        return input.substring(0, maxLength - 3) + "...";
+    }
+}
@@ -15,14 +15,23 @@ public class SchedulerService {
     @Autowired
     private PromptService promptService;
     
+    @Autowired
+    private PromptWorkerPool promptWorkerPool;
+    
     @Autowired
     private ApiConfigService apiConfigService;
     
+    @Autowired
+    private SheetSyncService sheetSyncService;
+    
+    @Autowired
+    private GoogleSheetsService googleSheetsService;
+    
     /**
      * Scheduled task to process pending prompts.
-     * Runs every 5 minutes.
+     * Runs every 5 minutes by default.
      */
-    @Scheduled(fixedRate = 300000) // 5 minutes
+    @Scheduled(fixedRateString = "${prompts.processing.interval-ms:300000}")
     public void processPendingPrompts() {
         log.info("Running scheduled task: process pending prompts");
         
@@ -32,8 +41,17 @@ public class SchedulerService {
             return;
         }
         
-        int processed = promptService.processAllPendingPrompts();
-        log.info("Scheduled task completed: processed {} pending prompts", processed);
+        int submitted = promptWorkerPool.submitPending();
+        log.info("Scheduled task completed: submitted {} pending prompts", submitted);
+    }
+    
+    /**
+     * Scheduled task to recover prompts stuck in progress, e.g. after a crash.
+     * Runs once at startup and then every minute by default.
+     */
+    @Scheduled(fixedDelayString = "${prompts.recovery.interval-ms:60000}")
+    public void recoverStuckPrompts() {
+        promptService.recoverStuckPrompts();
     }
     
     /**
@@ -46,4 +64,24 @@ public class SchedulerService {
         apiConfigService.refreshApiStatus();
         log.info("API status check completed");
     }
+    
+    /**
+     * Scheduled task to incrementally sync scheduled Google Sheets ranges.
+     * Runs every 10 minutes by default.
+     */
+    @Scheduled(fixedRateString = "${sheets.sync.interval-ms:600000}")
+    public void syncScheduledSheets() {
+        if (!googleSheetsService.isApiAvailable()) {
+            log.debug("Skipping scheduled sheet sync: Google Sheets API is not available");
+            return;
+        }
+        
+        for (Long syncId : sheetSyncService.getScheduledSyncIds()) {
+            try {
+                sheetSyncService.sync(syncId);
+            } catch (Exception e) {
+                log.error("Error syncing sheet {}: {}", syncId, e.getMessage());
+            }
+        }
+    }
 }
\ No newline at end of file
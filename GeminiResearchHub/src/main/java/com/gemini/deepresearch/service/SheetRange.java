@@ -0,0 +1,157 @@
+package com.gemini.deepresearch.service;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A Google Sheets range in A1 notation (e.g. "Sheet1!A2:B" or "Sheet1!C7").
+ * Immutable; open-ended ranges have no end row.
+ */
+public final class SheetRange {
+
+    // Optional sheet name, start cell, optional end cell
+    private static final Pattern A1_RANGE = Pattern.compile(
+            "^(?:(.+)!)?([A-Za-z]{1,3})(\\d+)?(?::([A-Za-z]{1,3})(\\d+)?)?$");
+    
+    private final String sheet;
+    private final String startColumn;
+    private final int startRow;
+    private final String endColumn;
+    private final Integer endRow;
+    
+    private SheetRange(String sheet, String startColumn, int startRow, String endColumn, Integer endRow) {
+        this.sheet = sheet;
+        this.startColumn = startColumn.toUpperCase();
+        this.startRow = startRow;
+        this.endColumn = endColumn.toUpperCase();
+        this.endRow = endRow;
+    }
+    
+    /**
+     * Parse a range in A1 notation.
+     * 
+     * @param range The range
+     * @return The parsed range
+     * @throws IllegalArgumentException if the range is not in A1 notation
+     */
+    public static SheetRange parse(String range) {
+        Matcher matcher = A1_RANGE.matcher(range != null ? range.trim() : "");
+        // A lone column without a row ("Foo") is more likely a sheet name than a column
+        if (!matcher.matches() || (matcher.group(3) == null && matcher.group(4) == null)) {
+            throw new IllegalArgumentException("Range must be in A1 notation (e.g., Sheet1!A2:A): " + range);
+        }
+        
+        String startColumn = matcher.group(2);
+        int startRow = matcher.group(3) != null ? Integer.parseInt(matcher.group(3)) : 1;
+        String endColumn = matcher.group(4) != null ? matcher.group(4) : startColumn;
+        Integer endRow = matcher.group(5) != null ? Integer.valueOf(matcher.group(5))
+                : matcher.group(4) == null ? startRow : null;
+        
+        return new SheetRange(matcher.group(1), startColumn, startRow, endColumn, endRow);
+    }
+    
+    /**
+     * Shift the start row of the range down by the given number of rows.
+     * 
+     * @param skipRows Number of rows to skip from the start of the range
+     * @return The shifted range, or null if the shift moves past the end of a bounded range
+     */
+    public SheetRange skipRows(int skipRows) {
+        int newStartRow = startRow + skipRows;
+        if (endRow != null && newStartRow > endRow) {
+            return null;
+        }
+        return new SheetRange(sheet, startColumn, newStartRow, endColumn, endRow);
+    }
+    
+    /**
+     * Get the single cell at the given row offset in the first column of the range.
+     * 
+     * @param rowOffset Offset from the start row
+     * @return The cell range
+     */
+    public SheetRange cellAt(int rowOffset) {
+        return cellAt(rowOffset, 0);
+    }
+    
+    /**
+     * Get the single cell at the given row and column offsets from the start of the range.
+     * 
+     * @param rowOffset Offset from the start row
+     * @param columnOffset Offset from the start column
+     * @return The cell range
+     */
+    public SheetRange cellAt(int rowOffset, int columnOffset) {
+        int row = startRow + rowOffset;
+        String column = shiftColumn(startColumn, columnOffset);
+        return new SheetRange(sheet, column, row, column, row);
+    }
+    
+    /**
+     * Get the row range of the given width that starts at this range's start cell.
+     * 
+     * @param width Number of columns
+     * @return The range on the start row
+     */
+    public SheetRange columns(int width) {
+        return new SheetRange(sheet, startColumn, startRow, shiftColumn(startColumn, width - 1), startRow);
+    }
+    
+    /**
+     * Get the row range of the given width that starts right of this range's start cell.
+     * 
+     * @param width Number of columns
+     * @return The adjacent range on the start row
+     */
+    public SheetRange adjacentColumns(int width) {
+        String first = shiftColumn(startColumn, 1);
+        String last = shiftColumn(startColumn, width);
+        return new SheetRange(sheet, first, startRow, last, startRow);
+    }
+    
+    /**
+     * Format the range in A1 notation.
+     * 
+     * @return The A1 string
+     */
+    public String toA1() {
+        return (sheet != null ? sheet + "!" : "") + startColumn + startRow + ":" + endColumn
+                + (endRow != null ? endRow : "");
+    }
+    
+    public String getSheet() {
+        return sheet;
+    }
+    
+    public int getStartRow() {
+        return startRow;
+    }
+    
+    @Override
+    public String toString() {
+        return toA1();
+    }
+    
+    /**
+     * Shift a column letter by the given number of columns (e.g. "Z" + 1 = "AA").
+     * 
+     * @param column The column letters
+     * @param delta Number of columns to shift by
+     * @return The shifted column letters
+     */
+    private static String shiftColumn(String column, int delta) {
+        int index = 0;
+        for (char c : column.toCharArray()) {
+            index = index * 26 + (c - 'A' + 1);
+        }
+        index += delta;
+        
+        StringBuilder result = new StringBuilder();
+        while (index > 0) {
+            int remainder = (index - 1) % 26;
+            result.insert(0, (char) ('A' + remainder));
+            index = (index - 1) / 26;
+        }
+        return result.toString();
+    }
+}
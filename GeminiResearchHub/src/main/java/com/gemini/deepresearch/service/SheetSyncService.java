@@ -0,0 +1,175 @@
+package com.gemini.deepresearch.service;
+
+import com.gemini.deepresearch.dto.SheetPrompt;
+import com.gemini.deepresearch.dto.SheetSyncResult;
+import com.gemini.deepresearch.model.SheetSyncState;
+import com.gemini.deepresearch.repository.SheetSyncStateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Service for incrementally importing prompts from Google Sheets.
+ * Each spreadsheet range keeps a watermark of the rows already imported,
+ * so repeated syncs only fetch and import rows appended since the last sync.
+ */
+@Service
+@Slf4j
+public class SheetSyncService {
+
+    @Autowired
+    private SheetSyncStateRepository syncStateRepository;
+    
+    @Autowired
+    private GoogleSheetsService googleSheetsService;
+    
+    @Autowired
+    private PromptService promptService;
+    
+    /**
+     * Register a spreadsheet range for incremental sync (if not registered yet) and sync it.
+     * 
+     * @param spreadsheetId The ID of the spreadsheet
+     * @param range The range of cells to read (e.g., "Sheet1!A2:A")
+     * @param notificationEmail Email for notifications (optional)
+     * @param notificationPhone Phone for notifications (optional)
+     * @param scheduled Whether the range should be polled by the scheduler
+     * @return The sync result
+     */
+    @Transactional
+    public SheetSyncResult registerAndSync(String spreadsheetId, String range,
+                                           String notificationEmail, String notificationPhone,
+                                           boolean scheduled) {
+        SheetRange.parse(range);
+        
+        SheetSyncState state = syncStateRepository.findBySpreadsheetIdAndSheetRange(spreadsheetId, range)
+                .orElseGet(() -> syncStateRepository.save(SheetSyncState.builder()
+                        .spreadsheetId(spreadsheetId)
+                        .sheetRange(range)
+                        .rowsConsumed(0)
+                        .build()));
+        
+        state = syncStateRepository.findByIdForUpdate(state.getId()).orElseThrow();
+        state.setNotificationEmail(notificationEmail);
+        state.setNotificationPhone(notificationPhone);
+        state.setScheduled(scheduled);
+        
+        return doSync(state);
+    }
+    
+    /**
+     * Sync a registered spreadsheet range, importing only rows past its watermark.
+     * 
+     * @param syncId The sync state ID
+     * @return The sync result
+     */
+    @Transactional
+    public SheetSyncResult sync(Long syncId) {
+        SheetSyncState state = syncStateRepository.findByIdForUpdate(syncId)
+                .orElseThrow(() -> new RuntimeException("Sheet sync not found with ID: " + syncId));
+        return doSync(state);
+    }
+    
+    /**
+     * Get the IDs of all ranges that are polled by the scheduler.
+     * 
+     * @return A list of sync state IDs
+     */
+    public List<Long> getScheduledSyncIds() {
+        return syncStateRepository.findByScheduled(true).stream()
+                .map(SheetSyncState::getId)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Get all registered sync states.
+     * 
+     * @return A list of sync states
+     */
+    public List<SheetSyncResult> getAllSyncStates() {
+        return syncStateRepository.findAll().stream()
+                .map(state -> SheetSyncResult.fromState(state, 0, 0))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Delete a sync state. A later sync of the same range starts again from the first row.
+     * 
+     * @param syncId The sync state ID
+     */
+    public void deleteSync(Long syncId) {
+        syncStateRepository.deleteById(syncId);
+    }
+    
+    /**
+     * Fetch the rows past the watermark, create prompts from them and advance the watermark.
+     * The last imported row is fetched again and compared against its stored hash,
+     * so edits above the watermark can be reported.
+     * 
+     * @param state The locked sync state
+     * @return The sync result
+     */
+    private SheetSyncResult doSync(SheetSyncState state) {
+        int consumed = state.getRowsConsumed() != null ? state.getRowsConsumed() : 0;
+        int overlap = consumed > 0 ? 1 : 0;
+        
+        SheetRange fetchRange = SheetRange.parse(state.getSheetRange()).skipRows(consumed - overlap);
+        List<List<Object>> rows = fetchRange != null
+                ? googleSheetsService.readRowsFromSheet(state.getSpreadsheetId(), fetchRange.toA1())
+                : Collections.emptyList();
+        
+        if (overlap > 0 && !rows.isEmpty() && state.getLastRowHash() != null
+                && !state.getLastRowHash().equals(hashRow(rows.get(0)))) {
+            log.warn("Row {} of {} in spreadsheet {} changed since the last sync; rows above the watermark are not re-imported",
+                    consumed, state.getSheetRange(), state.getSpreadsheetId());
+        }
+        
+        List<List<Object>> newRows = rows.size() > overlap ? rows.subList(overlap, rows.size()) : Collections.emptyList();
+        
+        int created = 0;
+        if (!newRows.isEmpty()) {
+            List<SheetPrompt> prompts = googleSheetsService.extractSheetPrompts(newRows, fetchRange.skipRows(overlap));
+            created = promptService.createSheetPrompts(state.getSpreadsheetId(), prompts,
+                    state.getNotificationEmail(), state.getNotificationPhone());
+            
+            state.setRowsConsumed(consumed + newRows.size());
+            state.setLastRowHash(hashRow(newRows.get(newRows.size() - 1)));
+        }
+        
+        state.setLastSyncedAt(LocalDateTime.now());
+        SheetSyncState savedState = syncStateRepository.save(state);
+        
+        log.info("Synced spreadsheet {} range {}: {} new rows, {} prompts created, watermark at row {}",
+                state.getSpreadsheetId(), state.getSheetRange(), newRows.size(), created, savedState.getRowsConsumed());
+        return SheetSyncResult.fromState(savedState, newRows.size(), created);
+    }
+    
+    /**
+     * Compute a content hash of a sheet row.
+     * 
+     * @param row The row
+     * @return The hex-encoded SHA-256 hash of the row's cell values
+     */
+    private static String hashRow(List<Object> row) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object cell : row) {
+                digest.update(String.valueOf(cell).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
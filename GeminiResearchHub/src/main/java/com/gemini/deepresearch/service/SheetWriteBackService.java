@@ -0,0 +1,173 @@
+package com.gemini.deepresearch.service;
+
+import com.gemini.deepresearch.model.Prompt;
+import com.google.api.services.sheets.v4.model.ValueRange;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service for writing research results back to the Google Sheet a prompt was imported from.
+ * Result, status and timestamp are written to three adjacent columns starting at the prompt's
+ * output cell (right of the columns it was imported from), or right of the prompt cell.
+ * Updates are queued and coalesced into one values.batchUpdate call per spreadsheet,
+ * flushed on a timer or, once the queue reaches the batch size, right away on the scheduler,
+ * so that prompt workers never wait for the Sheets API.
+ */
+@Service
+@Slf4j
+public class SheetWriteBackService {
+
+    // Maximum number of characters Google Sheets accepts in a single cell
+    private static final int MAX_CELL_LENGTH = 50000;
+    private static final int MAX_ATTEMPTS = 3;
+    
+    @Autowired
+    private GoogleSheetsService googleSheetsService;
+    
+    @Autowired
+    private TaskScheduler taskScheduler;
+    
+    @Value("${sheets.writeback.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${sheets.writeback.batch-size:100}")
+    private int batchSize;
+    
+    private final ConcurrentLinkedQueue<PendingWrite> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    
+    /**
+     * Queue the result of a processed prompt for write-back.
+     * Prompts that were not imported from Google Sheets are ignored.
+     * 
+     * @param prompt The processed prompt
+     */
+    public void enqueue(Prompt prompt) {
+        if (!enabled || prompt.getSheetSpreadsheetId() == null || prompt.getSheetCell() == null) {
+            return;
+        }
+        
+        SheetRange target = prompt.getSheetOutputCell() != null
+                ? SheetRange.parse(prompt.getSheetOutputCell()).columns(3)
+                : SheetRange.parse(prompt.getSheetCell()).adjacentColumns(3);
+        ValueRange valueRange = new ValueRange()
+                .setRange(target.toA1())
+                .setValues(List.of(List.of(
+                        truncate(prompt.getResult() != null ? prompt.getResult() : prompt.getLastError()),
+                        String.valueOf(prompt.getStatus()),
+                        String.valueOf(prompt.getCompletedAt() != null ? prompt.getCompletedAt() : LocalDateTime.now()))));
+        
+        queue.add(new PendingWrite(prompt.getSheetSpreadsheetId(), valueRange, 0));
+        if (queueSize.incrementAndGet() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::flush, Instant.now());
+        }
+    }
+    
+    /**
+     * Get the number of writes waiting to be flushed.
+     * 
+     * @return The number of queued writes
+     */
+    public int getPendingCount() {
+        return queueSize.get();
+    }
+    
+    /**
+     * Flush all queued writes, one values.batchUpdate call per spreadsheet.
+     * Failed batches are re-queued until they have been attempted {@value #MAX_ATTEMPTS} times.
+     */
+    @Scheduled(fixedDelayString = "${sheets.writeback.flush-interval-ms:5000}")
+    public void flush() {
+        // A lock instead of synchronized: the flush does I/O, which would pin a virtual thread
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            Map<String, List<PendingWrite>> bySpreadsheet = new LinkedHashMap<>();
+            PendingWrite write;
+            while ((write = queue.poll()) != null) {
+                queueSize.decrementAndGet();
+                bySpreadsheet.computeIfAbsent(write.spreadsheetId(), id -> new ArrayList<>()).add(write);
+            }
+        
+            for (Map.Entry<String, List<PendingWrite>> entry : bySpreadsheet.entrySet()) {
+                List<ValueRange> data = new ArrayList<>(entry.getValue().size());
+                entry.getValue().forEach(pending -> data.add(pending.valueRange()));
+            
+                try {
+                    int cells = googleSheetsService.batchUpdateValues(entry.getKey(), data);
+                    log.info("Wrote back {} results ({} cells) to spreadsheet {}", data.size(), cells, entry.getKey());
+                } catch (IOException e) {
+                    log.error("Error writing results back to spreadsheet {}: {}", entry.getKey(), e.getMessage());
+                    requeue(entry.getValue());
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+    
+    /**
+     * Flush the remaining writes on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (enabled && !queue.isEmpty()) {
+            flush();
+        }
+    }
+    
+    /**
+     * Put failed writes back into the queue, dropping those that used up their attempts.
+     * 
+     * @param writes The failed writes
+     */
+    private void requeue(List<PendingWrite> writes) {
+        for (PendingWrite failed : writes) {
+            if (failed.attempts() + 1 < MAX_ATTEMPTS) {
+                queue.add(new PendingWrite(failed.spreadsheetId(), failed.valueRange(), failed.attempts() + 1));
+                queueSize.incrementAndGet();
+            } else {
+                log.warn("Dropping write-back to {} in spreadsheet {} after {} attempts",
+                        failed.valueRange().getRange(), failed.spreadsheetId(), MAX_ATTEMPTS);
+            }
+        }
+    }
+    
+    /**
+     * Helper method to truncate a result to the maximum cell length.
+     * 
+     * @param input The input string
+     * @return The truncated string, or an empty string for null input
+     */
+    private String truncate(String input) {
+        if (input == null) {
+            return "";
+        }
+        return input.length() <= MAX_CELL_LENGTH ? input : input.substring(0, MAX_CELL_LENGTH);
+    }
+    
+    /**
+     * A queued write of one prompt's result.
+     */
+    private record PendingWrite(String spreadsheetId, ValueRange valueRange, int attempts) {
+    }
+}
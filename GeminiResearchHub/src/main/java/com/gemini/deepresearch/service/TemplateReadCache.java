@@ -0,0 +1,271 @@
+package com.gemini.deepresearch.service;
+
+import com.gemini.deepresearch.dto.PromptTemplateDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache for template reads: template detail, public templates and categories.
+ * Entries expire after a TTL and are invalidated whenever a template is saved or deleted.
+ * Invalidations are forwarded to the configured peer nodes on a small bounded executor, with
+ * short HTTP timeouts, and the peers apply them through the {@code /api/templates/cache/invalidate}
+ * endpoint. Forwarding is best effort: when the queue is full an invalidation is dropped and logged,
+ * and the peer serves its entry until the TTL expires. Peers authenticate
+ * with the shared secret templates.cache.peer-secret; without one the endpoint rejects all calls.
+ */
+@Service
+@Slf4j
+public class TemplateReadCache {
+
+    public static final String PEER_SECRET_HEADER = "X-Cache-Peer-Secret";
+    
+    @Value("${templates.cache.max-size:1000}")
+    private int maxSize;
+    
+    @Value("${templates.cache.ttl-ms:60000}")
+    private long ttlMs;
+    
+    // Base URLs of other nodes to notify of invalidations (e.g. http://node2:8080)
+    @Value("${templates.cache.peers:}")
+    private List<String> peers;
+    
+    @Value("${templates.cache.peer-secret:}")
+    private String peerSecret;
+    
+    private final ConcurrentHashMap<Long, Entry<Optional<PromptTemplateDTO>>> templates = new ConcurrentHashMap<>();
+    private volatile Entry<List<PromptTemplateDTO>> publicTemplates;
+    private volatile Entry<List<String>> categories;
+    
+    // Incremented on every invalidation; loads that started before an invalidation are not cached
+    private final AtomicLong generation = new AtomicLong();
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    private final LongAdder droppedInvalidations = new LongAdder();
+    
+    // Peer calls block on HTTP, so they get their own threads instead of the common pool
+    private final ExecutorService peerNotifier;
+    
+    // Own client with short timeouts, so an unresponsive peer cannot hold a notifier thread
+    private final RestTemplate peerClient;
+    
+    public TemplateReadCache(@Value("${templates.cache.peer-threads:2}") int peerThreads,
+                             @Value("${templates.cache.peer-queue-capacity:1000}") int peerQueueCapacity,
+                             @Value("${templates.cache.peer-timeout-ms:2000}") int peerTimeoutMs) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        int threads = Math.max(1, peerThreads);
+        // Bounded queue; when it is full the invalidation is dropped and the peer's entries expire by TTL
+        this.peerNotifier = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, peerQueueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "Template-Cache-Peers-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> {
+                    droppedInvalidations.increment();
+                    log.warn("Dropping template cache invalidation for a peer: {} invalidations queued",
+                            executor.getQueue().size());
+                });
+        
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(peerTimeoutMs);
+        requestFactory.setReadTimeout(peerTimeoutMs);
+        this.peerClient = new RestTemplate(requestFactory);
+    }
+    
+    /**
+     * Get a template by ID, loading it on a miss.
+     * 
+     * @param id The template ID
+     * @param loader Loads the template from the database
+     * @return The template, if found
+     */
+    public Optional<PromptTemplateDTO> getTemplate(Long id, Supplier<Optional<PromptTemplateDTO>> loader) {
+        Entry<Optional<PromptTemplateDTO>> entry = templates.get(id);
+        if (isFresh(entry)) {
+            hits.increment();
+            return entry.value();
+        }
+        
+        misses.increment();
+        long loadGeneration = generation.get();
+        Optional<PromptTemplateDTO> value = loader.get();
+        if (templates.size() >= maxSize) {
+            templates.clear();
+        }
+        if (generation.get() == loadGeneration) {
+            templates.put(id, new Entry<>(value));
+        }
+        return value;
+    }
+    
+    /**
+     * Get the public templates, loading them on a miss.
+     * 
+     * @param loader Loads the public templates from the database
+     * @return The public templates
+     */
+    public List<PromptTemplateDTO> getPublicTemplates(Supplier<List<PromptTemplateDTO>> loader) {
+        Entry<List<PromptTemplateDTO>> entry = publicTemplates;
+        if (isFresh(entry)) {
+            hits.increment();
+            return entry.value();
+        }
+        
+        misses.increment();
+        long loadGeneration = generation.get();
+        List<PromptTemplateDTO> value = List.copyOf(loader.get());
+        if (generation.get() == loadGeneration) {
+            publicTemplates = new Entry<>(value);
+        }
+        return value;
+    }
+    
+    /**
+     * Get the template categories, loading them on a miss.
+     * 
+     * @param loader Loads the categories from the database
+     * @return The categories
+     */
+    public List<String> getCategories(Supplier<List<String>> loader) {
+        Entry<List<String>> entry = categories;
+        if (isFresh(entry)) {
+            hits.increment();
+            return entry.value();
+        }
+        
+        misses.increment();
+        long loadGeneration = generation.get();
+        List<String> value = List.copyOf(loader.get());
+        if (generation.get() == loadGeneration) {
+            categories = new Entry<>(value);
+        }
+        return value;
+    }
+    
+    /**
+     * Invalidate the entries affected by a change to a template, on this node and on all peers.
+     * 
+     * @param templateId The ID of the saved or deleted template
+     */
+    public void invalidate(Long templateId) {
+        invalidateLocal(templateId);
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(PEER_SECRET_HEADER, peerSecret);
+        HttpEntity<Void> request = new HttpEntity<>(headers);
+        for (String peer : peers) {
+            if (peer.isBlank()) {
+                continue;
+            }
+            String url = peer + "/api/templates/cache/invalidate" + (templateId != null ? "?id=" + templateId : "");
+            peerNotifier.execute(() -> {
+                try {
+                    peerClient.postForEntity(url, request, Void.class);
+                } catch (Exception e) {
+                    log.warn("Failed to forward template cache invalidation to {}: {}", peer, e.getMessage());
+                }
+            });
+        }
+    }
+    
+    /**
+     * Check the shared secret sent by a peer with an invalidation.
+     * 
+     * @param secret The secret sent by the caller
+     * @return true if a peer secret is configured and the caller sent it, false otherwise
+     */
+    public boolean isPeerAuthorized(String secret) {
+        if (peerSecret == null || peerSecret.isBlank() || secret == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(peerSecret.getBytes(StandardCharsets.UTF_8), secret.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Invalidate the entries affected by a change to a template on this node only.
+     * Lists are always invalidated, since any template change may affect them.
+     * 
+     * @param templateId The ID of the changed template, or null to invalidate everything
+     */
+    public void invalidateLocal(Long templateId) {
+        generation.incrementAndGet();
+        if (templateId != null) {
+            templates.remove(templateId);
+        } else {
+            templates.clear();
+        }
+        publicTemplates = null;
+        categories = null;
+    }
+    
+    /**
+     * Get the cache statistics.
+     * 
+     * @return Hits, misses, hit rate and size
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", total > 0 ? (double) hitCount / total : 0.0);
+        stats.put("templateEntries", templates.size());
+        stats.put("droppedPeerInvalidations", droppedInvalidations.sum());
+        return stats;
+    }
+    
+    public long getHitCount() {
+        return hits.sum();
+    }
+    
+    public long getMissCount() {
+        return misses.sum();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        peerNotifier.shutdown();
+    }
+    
+    private boolean isFresh(Entry<?> entry) {
+        return entry != null && System.currentTimeMillis() - entry.loadedAt() < ttlMs;
+    }
+    
+    /**
+     * A cached value and the time it was loaded.
+     */
+    private record Entry<T>(T value, long loadedAt) {
+        
+        Entry(T value) {
+            this(value, System.currentTimeMillis());
+        }
+    }
+}
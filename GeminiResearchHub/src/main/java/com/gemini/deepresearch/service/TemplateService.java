@@ -4,12 +4,24 @@ import com.gemini.deepresearch.dto.PromptRequest;
 import com.gemini.deepresearch.dto.PromptResponse;
 import com.gemini.deepresearch.dto.PromptTemplateDTO;
 import com.gemini.deepresearch.dto.TemplateApplyRequest;
+import com.gemini.deepresearch.exception.TemplateBulkApplyException;
+import com.gemini.deepresearch.model.CompiledTemplate;
 import com.gemini.deepresearch.model.PromptTemplate;
 import com.gemini.deepresearch.repository.PromptTemplateRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +41,24 @@ public class TemplateService {
     @Autowired
     private PromptService promptService;
     
+    @Autowired
+    private CompiledTemplateCache compiledTemplateCache;
+    
+    @Autowired
+    private TemplateUsageTracker usageTracker;
+    
+    @Autowired
+    private TemplateReadCache templateReadCache;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${templates.bulk.batch-size:500}")
+    private int bulkBatchSize;
+    
+    @Value("${templates.search.max-results:100}")
+    private int searchMaxResults;
+    
     /**
      * Get all templates.
      * 
@@ -36,7 +66,7 @@ public class TemplateService {
      */
     public List<PromptTemplateDTO> getAllTemplates() {
         return templateRepository.findAll().stream()
-                .map(PromptTemplateDTO::fromEntity)
+                .map(this::toDto)
                 .collect(Collectors.toList());
     }
     
@@ -47,8 +77,8 @@ public class TemplateService {
      * @return The template, if found
      */
     public Optional<PromptTemplateDTO> getTemplateById(Long id) {
-        return templateRepository.findById(id)
-                .map(PromptTemplateDTO::fromEntity);
+        return templateReadCache.getTemplate(id, () -> templateRepository.findById(id)
+                .map(this::toDto));
     }
     
     /**
@@ -60,7 +90,9 @@ public class TemplateService {
     public PromptTemplateDTO saveTemplate(PromptTemplateDTO templateDTO) {
         PromptTemplate template = templateDTO.toEntity();
         PromptTemplate savedTemplate = templateRepository.save(template);
-        return PromptTemplateDTO.fromEntity(savedTemplate);
+        compiledTemplateCache.evict(savedTemplate.getId());
+        templateReadCache.invalidate(savedTemplate.getId());
+        return toDto(savedTemplate);
     }
     
     /**
@@ -70,31 +102,45 @@ public class TemplateService {
      */
     public void deleteTemplate(Long id) {
         templateRepository.deleteById(id);
+        compiledTemplateCache.evict(id);
+        usageTracker.remove(id);
+        templateReadCache.invalidate(id);
     }
     
     /**
      * Search templates by name and/or category.
+     * Returns the first page of results ordered by relevance.
      * 
-     * @param name The name to search for (optional)
+     * @param name The text to search for (optional)
      * @param category The category to filter by (optional)
      * @return A list of matching templates
      */
     public List<PromptTemplateDTO> searchTemplates(String name, String category) {
-        List<PromptTemplate> templates;
+        return searchTemplates(name, category, PageRequest.of(0, searchMaxResults)).getContent();
+    }
+    
+    /**
+     * Search templates by relevance over name, description and content, and/or by category.
+     * 
+     * @param query The text to search for (optional)
+     * @param category The category to filter by (optional)
+     * @param pageable The page to return
+     * @return A page of matching templates
+     */
+    public Page<PromptTemplateDTO> searchTemplates(String query, String category, Pageable pageable) {
+        String categoryFilter = category != null && !category.isBlank() ? category : null;
+        Page<PromptTemplate> templates;
         
-        if (name != null && !name.isBlank() && category != null && !category.isBlank()) {
-            templates = templateRepository.findByNameContainingIgnoreCaseAndCategory(name, category);
-        } else if (name != null && !name.isBlank()) {
-            templates = templateRepository.findByNameContainingIgnoreCase(name);
-        } else if (category != null && !category.isBlank()) {
-            templates = templateRepository.findByCategory(category);
+        if (query != null && !query.isBlank()) {
+            templates = templateRepository.search(query.trim(), categoryFilter,
+                    PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+        } else if (categoryFilter != null) {
+            templates = templateRepository.findByCategory(categoryFilter, pageable);
         } else {
-            templates = templateRepository.findAll();
+            templates = templateRepository.findAll(pageable);
         }
         
-        return templates.stream()
-                .map(PromptTemplateDTO::fromEntity)
-                .collect(Collectors.toList());
+        return templates.map(this::toDto);
     }
     
     /**
@@ -103,9 +149,9 @@ public class TemplateService {
      * @return A list of public templates
      */
     public List<PromptTemplateDTO> getPublicTemplates() {
-        return templateRepository.findByIsPublic(true).stream()
-                .map(PromptTemplateDTO::fromEntity)
-                .collect(Collectors.toList());
+        return templateReadCache.getPublicTemplates(() -> templateRepository.findByIsPublic(true).stream()
+                .map(this::toDto)
+                .collect(Collectors.toList()));
     }
     
     /**
@@ -116,7 +162,7 @@ public class TemplateService {
      */
     public List<PromptTemplateDTO> getTemplatesByCreator(String createdBy) {
         return templateRepository.findByCreatedBy(createdBy).stream()
-                .map(PromptTemplateDTO::fromEntity)
+                .map(this::toDto)
                 .collect(Collectors.toList());
     }
     
@@ -131,7 +177,7 @@ public class TemplateService {
                 .orElseThrow(() -> new RuntimeException("Template not found with ID: " + request.getTemplateId()));
         
         // Apply the variables to the template
-        String promptContent = template.applyTemplate(request.getVariables());
+        String promptContent = compiledTemplateCache.get(template).render(request.getVariables());
         
         // Create a new prompt request
         PromptRequest promptRequest = PromptRequest.builder()
@@ -144,29 +190,103 @@ public class TemplateService {
                 .sendWhatsapp(request.getSendWhatsapp() != null ? request.getSendWhatsapp() : false)
                 .build();
         
-        // Increment the usage count
-        template.setUsageCount(template.getUsageCount() != null ? template.getUsageCount() + 1 : 1);
-        templateRepository.save(template);
+        // Count the use; the tracker flushes counts to the database in batches
+        usageTracker.record(template.getId(), 1);
         
         // Create the prompt
         return promptService.createPrompt(promptRequest);
     }
     
     /**
-     * Get a list of all categories.
+     * Apply a template to every row of a variables stream and create one prompt per row.
+     * The template is compiled once; prompts are inserted in batches as the input is read,
+     * and the usage count is recorded once with the total at the end.
+     * The apply is not atomic: each batch is committed when it is full. If a row is malformed,
+     * the prompts of all rows before it stay created and are reported with the failing line,
+     * so the client can resend only the rows after that line.
      * 
-     * @return A list of all categories
+     * @param templateId The template ID
+     * @param input The CSV or NDJSON variables stream
+     * @param format The format of the stream
+     * @param notificationEmail Email for notifications (optional)
+     * @param notificationPhone Phone for notifications (optional)
+     * @return The number of prompts created
+     * @throws TemplateBulkApplyException if the stream cannot be read or contains a malformed row
      */
-    public List<String> getAllCategories() {
-        List<String> categories = new ArrayList<>();
+    public int applyTemplateBulk(Long templateId, InputStream input, TemplateVariableReader.Format format,
+                                 String notificationEmail, String notificationPhone) throws IOException {
+        PromptTemplate template = templateRepository.findById(templateId)
+                .orElseThrow(() -> new RuntimeException("Template not found with ID: " + templateId));
+        CompiledTemplate compiled = compiledTemplateCache.get(template);
+        
+        int created = 0;
+        List<String> batch = new ArrayList<>(bulkBatchSize);
         
-        templateRepository.findAll().forEach(template -> {
-            if (template.getCategory() != null && !template.getCategory().isBlank() && !categories.contains(template.getCategory())) {
-                categories.add(template.getCategory());
+        try (TemplateVariableReader reader = new TemplateVariableReader(
+                new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)), format, objectMapper)) {
+            try {
+                Map<String, String> variables;
+                while ((variables = reader.next()) != null) {
+                    batch.add(compiled.render(variables));
+                    if (batch.size() >= bulkBatchSize) {
+                        created += promptService.createBatchPrompts(batch, "TEMPLATE", template.getCreatedBy(),
+                                notificationEmail, notificationPhone);
+                        batch.clear();
+                    }
+                }
+                created += promptService.createBatchPrompts(batch, "TEMPLATE", template.getCreatedBy(),
+                        notificationEmail, notificationPhone);
+            } catch (IOException e) {
+                // Keep the rows read before the bad one, so the reported line is a clean resume point
+                created += promptService.createBatchPrompts(batch, "TEMPLATE", template.getCreatedBy(),
+                        notificationEmail, notificationPhone);
+                throw new TemplateBulkApplyException("Invalid variables at line " + reader.getLineNumber() + ": "
+                        + e.getMessage(), created, reader.getLineNumber(), e);
+            } finally {
+                usageTracker.record(templateId, created);
             }
-        });
+        }
         
-        return categories;
+        log.info("Applied template {} to {} variable rows", templateId, created);
+        return created;
+    }
+    
+    /**
+     * Invalidate cached template reads on this node only.
+     * 
+     * @param id The ID of the changed template, or null to invalidate everything
+     */
+    public void invalidateCache(Long id) {
+        templateReadCache.invalidateLocal(id);
+    }
+    
+    /**
+     * Check the shared secret sent by a peer node with a cache invalidation.
+     * 
+     * @param secret The secret sent by the caller
+     * @return true if the caller is a configured peer
+     */
+    public boolean isCachePeerAuthorized(String secret) {
+        return templateReadCache.isPeerAuthorized(secret);
+    }
+    
+    /**
+     * Get template cache statistics.
+     * 
+     * @return Hits, misses, hit rate and size of the template cache
+     */
+    public Map<String, Object> getCacheStats() {
+        return templateReadCache.getStats();
+    }
+    
+    /**
+     * Get a list of all categories.
+     * The list is cached and invalidated whenever a template is saved or deleted.
+     * 
+     * @return A list of all categories
+     */
+    public List<String> getAllCategories() {
+        return templateReadCache.getCategories(templateRepository::findDistinctCategories);
     }
     
     /**
@@ -201,4 +321,19 @@ public class TemplateService {
         
         return template.applyTemplate(variables);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Convert a template to its DTO, including uses that have not been flushed yet.
+     * 
+     * @param template The template entity
+     * @return The DTO
+     */
+    private PromptTemplateDTO toDto(PromptTemplate template) {
+        PromptTemplateDTO dto = PromptTemplateDTO.fromEntity(template);
+        long pendingUses = usageTracker.getPending(template.getId());
+        if (pendingUses > 0) {
+            dto.setUsageCount((int) ((dto.getUsageCount() != null ? dto.getUsageCount() : 0) + pendingUses));
+        }
+        return dto;
+    }
+}
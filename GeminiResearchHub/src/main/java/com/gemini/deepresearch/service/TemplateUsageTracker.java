@@ -0,0 +1,106 @@
+package com.gemini.deepresearch.service;
+
+import com.gemini.deepresearch.repository.PromptTemplateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service that counts template uses in memory and flushes them to the database in batches.
+ * Counting uses a striped {@link LongAdder} per template, so concurrent applies neither
+ * lose increments nor contend on the template row; each flush adds the accumulated
+ * count with a single atomic UPDATE per template.
+ */
+@Service
+@Slf4j
+public class TemplateUsageTracker {
+
+    @Autowired
+    private PromptTemplateRepository templateRepository;
+    
+    private final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    
+    /**
+     * Record uses of a template.
+     * 
+     * @param templateId The template ID
+     * @param count The number of uses
+     */
+    public void record(Long templateId, long count) {
+        if (templateId == null || count <= 0) {
+            return;
+        }
+        pending.computeIfAbsent(templateId, id -> new LongAdder()).add(count);
+    }
+    
+    /**
+     * Get the number of uses of a template that have not been flushed yet.
+     * 
+     * @param templateId The template ID
+     * @return The number of unflushed uses
+     */
+    public long getPending(Long templateId) {
+        LongAdder adder = templateId != null ? pending.get(templateId) : null;
+        return adder != null ? adder.sum() : 0;
+    }
+    
+    /**
+     * Flush the accumulated uses to the database.
+     * Counts that fail to flush are kept for the next run.
+     */
+    @Scheduled(fixedDelayString = "${templates.usage.flush-interval-ms:10000}")
+    public void flush() {
+        // A lock instead of synchronized: the flush does I/O, which would pin a virtual thread
+        flushLock.lock();
+        try {
+            int flushed = 0;
+            for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+                long count = entry.getValue().sumThenReset();
+                if (count == 0) {
+                    continue;
+                }
+            
+                try {
+                    templateRepository.incrementUsageCount(entry.getKey(), (int) count);
+                    flushed++;
+                } catch (Exception e) {
+                    log.error("Error flushing usage count of template {}: {}", entry.getKey(), e.getMessage());
+                    entry.getValue().add(count);
+                }
+            }
+        
+            if (flushed > 0) {
+                log.debug("Flushed usage counts of {} templates", flushed);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+    
+    /**
+     * Forget the unflushed uses of a deleted template.
+     * 
+     * @param templateId The template ID
+     */
+    public void remove(Long templateId) {
+        if (templateId != null) {
+            pending.remove(templateId);
+        }
+    }
+    
+    /**
+     * Flush the remaining uses on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
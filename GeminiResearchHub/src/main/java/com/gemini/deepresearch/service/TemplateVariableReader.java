@@ -0,0 +1,172 @@
+package com.gemini.deepresearch.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming reader of template variable rows from CSV or NDJSON input.
+ * CSV input starts with a header row naming the variables, and every row must have as
+ * many fields as the header; each NDJSON line is an object mapping variable names to values.
+ * Rows are read one at a time, so inputs of any size are processed in constant memory.
+ */
+public class TemplateVariableReader implements Closeable {
+
+    /**
+     * Supported input formats.
+     */
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+    
+    private static final TypeReference<LinkedHashMap<String, Object>> ROW_TYPE = new TypeReference<>() {
+    };
+    
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectMapper objectMapper;
+    private List<String> header;
+    private long lineNumber;
+    
+    public TemplateVariableReader(BufferedReader reader, Format format, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+    
+    /**
+     * Read the next row of variables, skipping blank lines.
+     * 
+     * @return The variables of the next row, or null at the end of the input
+     * @throws IOException if the input cannot be read or a row is malformed, e.g. a CSV row
+     *         with more or fewer fields than the header
+     */
+    public Map<String, String> next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            
+            if (format == Format.NDJSON) {
+                return parseJsonRow(line);
+            }
+            
+            List<String> values = parseCsvRecord(line);
+            if (header == null) {
+                header = values;
+                continue;
+            }
+            
+            if (values.size() != header.size()) {
+                // A row with missing or extra fields would silently render with the wrong variables
+                throw new IOException("Row has " + values.size() + " fields but the header has " + header.size());
+            }
+            
+            Map<String, String> row = new LinkedHashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                row.put(header.get(i), values.get(i));
+            }
+            return row;
+        }
+        return null;
+    }
+    
+    /**
+     * Get the number of the last line read (one-based).
+     * 
+     * @return The line number
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+    
+    /**
+     * Parse an NDJSON line into variables, converting values to strings.
+     * 
+     * @param line The line
+     * @return The variables
+     * @throws IOException if the line is not a JSON object
+     */
+    private Map<String, String> parseJsonRow(String line) throws IOException {
+        Map<String, Object> values = objectMapper.readValue(line, ROW_TYPE);
+        Map<String, String> row = new LinkedHashMap<>();
+        values.forEach((key, value) -> {
+            if (value != null) {
+                row.put(key, value.toString());
+            }
+        });
+        return row;
+    }
+    
+    /**
+     * Parse a CSV record (RFC 4180): fields separated by commas, optionally quoted with
+     * double quotes; quoted fields may contain commas, escaped quotes and line breaks.
+     * 
+     * @param firstLine The first line of the record
+     * @return The field values
+     * @throws IOException if the input ends inside a quoted field
+     */
+    private List<String> parseCsvRecord(String firstLine) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        String line = firstLine;
+        int i = 0;
+        
+        while (true) {
+            if (i >= line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                // Quoted field continues on the next line
+                line = reader.readLine();
+                if (line == null) {
+                    throw new IOException("Unterminated quoted field at line " + lineNumber);
+                }
+                lineNumber++;
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+            
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c == '"') {
+                    if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        
+        return fields;
+    }
+}
@@ -1,20 +1,28 @@
 package com.gemini.deepresearch.service;
 
+import com.gemini.deepresearch.model.ApiConfig;
+import com.gemini.deepresearch.repository.ApiConfigRepository;
 import com.twilio.Twilio;
 import com.twilio.exception.ApiException;
 import com.twilio.rest.api.v2010.account.Message;
 import com.twilio.type.PhoneNumber;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
  * Service for sending SMS and WhatsApp notifications using Twilio.
+ * Credentials come from the active SMS configuration saved in the admin settings
+ * (project ID, API token and from number), or from the twilio.* properties if there is none.
  */
 @Service
 @Slf4j
 public class TwilioService {
 
+    @Autowired
+    private ApiConfigRepository apiConfigRepository;
+    
     @Value("${twilio.account.sid:}")
     private String twilioAccountSid;
 
@@ -23,30 +31,84 @@ public class TwilioService {
 
     @Value("${twilio.phone.number:}")
     private String twilioPhoneNumber;
+    
+    // Sender number of the current client, set with the credentials it was built from
+    private volatile String fromNumber;
 
-    private boolean isInitialized = false;
+    /**
+     * Availability of the Twilio client: null until the first initialization
+     * attempt, then the outcome of that attempt. Volatile so that availability
+     * checks on the hot path are plain reads without locking.
+     */
+    private volatile Boolean available;
     
     /**
      * Initialize the Twilio client with credentials.
-     * This method is called lazily when the service is first used.
+     * The client is built once, either at startup by {@link ClientLifecycleManager}
+     * or on first use when warm-up is disabled. Concurrent callers block until
+     * the single initialization attempt completes.
+     * 
+     * @return true if initialization was successful, false otherwise
+     */
+    public boolean initialize() {
+        Boolean result = available;
+        if (result != null) {
+            return result;
+        }
+        
+        synchronized (this) {
+            if (available == null) {
+                available = initializeTwilio();
+            }
+            return available;
+        }
+    }
+    
+    /**
+     * Discard the current client state and initialize again with the current credentials.
+     * Called when the SMS configuration changes.
+     * 
+     * @return true if re-initialization was successful, false otherwise
+     */
+    public synchronized boolean reinitialize() {
+        available = null;
+        return initialize();
+    }
+    
+    /**
+     * Perform the actual Twilio client initialization.
+     * Must only be called while holding the service lock.
      * 
      * @return true if initialization was successful, false otherwise
      */
     private boolean initializeTwilio() {
-        if (isInitialized) {
-            return true;
+        String accountSid = twilioAccountSid;
+        String authToken = twilioAuthToken;
+        String phoneNumber = twilioPhoneNumber;
+        String source = "properties";
+        
+        try {
+            ApiConfig config = apiConfigRepository.findByConfigTypeAndIsActive(ApiConfig.ConfigType.SMS, true)
+                    .orElse(null);
+            if (config != null) {
+                accountSid = config.getProjectId();
+                authToken = config.getApiToken();
+                phoneNumber = config.getFromNumber();
+                source = "saved SMS configuration";
+            }
+        } catch (Exception e) {
+            log.warn("Could not read the SMS configuration, using properties: {}", e.getMessage());
         }
         
-        if (twilioAccountSid == null || twilioAccountSid.isEmpty() ||
-            twilioAuthToken == null || twilioAuthToken.isEmpty() ||
-            twilioPhoneNumber == null || twilioPhoneNumber.isEmpty()) {
+        if (isBlank(accountSid) || isBlank(authToken) || isBlank(phoneNumber)) {
             log.warn("Twilio credentials are not set. SMS and WhatsApp features are disabled.");
             return false;
         }
         
         try {
-            Twilio.init(twilioAccountSid, twilioAuthToken);
-            isInitialized = true;
+            Twilio.init(accountSid, authToken);
+            fromNumber = phoneNumber;
+            log.info("Twilio client initialized from {}", source);
             return true;
         } catch (Exception e) {
             log.error("Failed to initialize Twilio client: {}", e.getMessage());
@@ -62,7 +124,7 @@ public class TwilioService {
      * @return true if the message was sent successfully, false otherwise
      */
     public boolean sendSms(String to, String body) {
-        if (!initializeTwilio()) {
+        if (!initialize()) {
             log.warn("Cannot send SMS: Twilio is not initialized");
             return false;
         }
@@ -70,7 +132,7 @@ public class TwilioService {
         try {
             Message message = Message.creator(
                     new PhoneNumber(to),
-                    new PhoneNumber(twilioPhoneNumber),
+                    new PhoneNumber(fromNumber),
                     body)
                 .create();
                 
@@ -90,14 +152,14 @@ public class TwilioService {
      * @return true if the message was sent successfully, false otherwise
      */
     public boolean sendWhatsApp(String to, String body) {
-        if (!initializeTwilio()) {
+        if (!initialize()) {
             log.warn("Cannot send WhatsApp message: Twilio is not initialized");
             return false;
         }
         
         try {
             // Format WhatsApp number with whatsapp: prefix
-            String whatsappFrom = "whatsapp:" + twilioPhoneNumber;
+            String whatsappFrom = "whatsapp:" + fromNumber;
             String whatsappTo = "whatsapp:" + to;
             
             Message message = Message.creator(
@@ -120,7 +182,7 @@ public class TwilioService {
      * @return true if the service is available, false otherwise
      */
     public boolean isSmsAvailable() {
-        return initializeTwilio();
+        return initialize();
     }
     
     /**
@@ -129,6 +191,10 @@ public class TwilioService {
      * @return true if the service is available, false otherwise
      */
     public boolean isWhatsAppAvailable() {
-        return initializeTwilio();
+        return initialize();
+    }
+    
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
     }
 }
\ No newline at end of file
@@ -121,6 +121,22 @@ document.addEventListener('DOMContentLoaded', function() {
         });
     });
     
+    // Re-drive buttons for dead-lettered prompts in admin page
+    document.querySelectorAll('.redrive-btn').forEach(function(btn) {
+        btn.addEventListener('click', function() {
+            const promptId = this.dataset.id;
+            redrivePrompt(promptId);
+        });
+    });
+    
+    // Cancel buttons in admin page
+    document.querySelectorAll('.cancel-btn').forEach(function(btn) {
+        btn.addEventListener('click', function() {
+            const promptId = this.dataset.id;
+            cancelPrompt(promptId);
+        });
+    });
+    
     // Delete buttons in admin page
     document.querySelectorAll('.delete-btn').forEach(function(btn) {
         btn.addEventListener('click', function() {
@@ -129,12 +145,48 @@ document.addEventListener('DOMContentLoaded', function() {
         });
     });
     
-    // Load prompts on home page if list exists
+    // Load prompts on home page if list exists, then keep it current from the event stream
     if (document.getElementById('promptsList') && window.location.pathname === '/') {
         loadPrompts();
+        subscribeToPromptEvents();
     }
 });
 
+// Subscribe to live prompt status updates instead of polling the full list
+function subscribeToPromptEvents() {
+    if (!window.EventSource) return;
+    
+    let reloadTimer = null;
+    const scheduleReload = function() {
+        // Coalesce bursts of creations into a single list reload
+        if (reloadTimer) return;
+        reloadTimer = setTimeout(() => {
+            reloadTimer = null;
+            loadPrompts();
+        }, 1000);
+    };
+    
+    const source = new EventSource('/api/prompts/events');
+    source.addEventListener('prompt', function(event) {
+        const promptEvent = JSON.parse(event.data);
+        
+        if (promptEvent.type === 'CREATED' || promptEvent.type === 'BATCH_CREATED') {
+            scheduleReload();
+            return;
+        }
+        
+        // Update the status badge in place if the prompt is listed
+        const badge = document.querySelector('#promptsList tr[data-id="' + promptEvent.promptId + '"] .badge');
+        if (badge && promptEvent.status) {
+            badge.className = 'badge ' + getStatusBadgeClass(promptEvent.status);
+            badge.textContent = promptEvent.status;
+        }
+    });
+    
+    // After a disconnect (e.g. as a slow consumer) EventSource reconnects; reload to catch up
+    source.addEventListener('open', scheduleReload);
+}
+
 // Submit a new prompt
 function submitPrompt() {
     const content = document.getElementById('content').value.trim();
@@ -334,7 +386,7 @@ function loadPrompts() {
             const formattedDate = createdDate.toLocaleDateString() + ' ' + createdDate.toLocaleTimeString();
             
             html += `
-                <tr>
+                <tr data-id="${prompt.id}">
                     <td>${prompt.id}</td>
                     <td>${prompt.content.length > 50 ? prompt.content.substring(0, 50) + '...' : prompt.content}</td>
                     <td><span class="badge ${getStatusBadgeClass(prompt.status)}">${prompt.status}</span></td>
@@ -409,6 +461,53 @@ function processPrompt(promptId) {
     });
 }
 
+// Move a dead-lettered prompt back to the queue (admin action)
+function redrivePrompt(promptId) {
+    if (!promptId) return;
+    
+    fetch('/api/prompts/dead-letter/redrive?ids=' + encodeURIComponent(promptId), {
+        method: 'POST'
+    })
+    .then(response => {
+        if (!response.ok) {
+            return response.json().then(err => { throw err; });
+        }
+        return response.json();
+    })
+    .then(result => {
+        window.location.reload();
+    })
+    .catch(error => {
+        console.error('Error re-driving prompt:', error);
+        alert('Error re-driving prompt: ' + (error.error || error.message || 'Unknown error'));
+    });
+}
+
+// Cancel a pending or in-progress prompt (admin action)
+function cancelPrompt(promptId) {
+    if (!promptId) return;
+    
+    fetch('/api/prompts/' + promptId + '/cancel', {
+        method: 'POST'
+    })
+    .then(response => {
+        if (response.status === 409) {
+            throw { message: 'The prompt has already finished' };
+        }
+        if (!response.ok) {
+            return response.json().then(err => { throw err; });
+        }
+        return response.json();
+    })
+    .then(result => {
+        window.location.reload();
+    })
+    .catch(error => {
+        console.error('Error cancelling prompt:', error);
+        alert('Error cancelling prompt: ' + (error.error || error.message || 'Unknown error'));
+    });
+}
+
 // Delete a prompt (admin action)
 function deletePrompt(promptId) {
     if (!promptId) return;
@@ -469,6 +568,10 @@ function getStatusBadgeClass(status) {
             return 'bg-info';
         case 'ERROR':
             return 'bg-danger';
+        case 'CANCELLED':
+            return 'bg-secondary';
+        case 'DEAD_LETTER':
+            return 'bg-dark';
         default:
             return 'bg-secondary';
     }
@@ -0,0 +1,97 @@
+package com.gemini.deepresearch.service;
+
+import com.gemini.deepresearch.model.Prompt;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FairShareQueueTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final PromptSchedulingPolicy policy =
+            new PromptSchedulingPolicy("WEB:8,TEMPLATE:5,SHEETS:2,FILE:2", 5, "", 600_000, 7);
+
+    @Test
+    void agingStopsBelowInteractivePriority() {
+        Prompt oldUpload = prompt(1L, "FILE", "bulk", NOW.minusHours(24));
+        Prompt newWebPrompt = prompt(2L, "WEB", "user", NOW);
+
+        assertThat(policy.effectivePriority(oldUpload, NOW)).isEqualTo(7);
+        assertThat(policy.effectivePriority(newWebPrompt, NOW)).isEqualTo(8);
+    }
+
+    @Test
+    void agedPromptsOvertakeNewerBulkPrompts() {
+        Prompt oldUpload = prompt(1L, "FILE", "bulk", NOW.minusMinutes(70));
+        Prompt newTemplatePrompt = prompt(2L, "TEMPLATE", "user", NOW);
+
+        assertThat(policy.effectivePriority(oldUpload, NOW)).isGreaterThan(policy.effectivePriority(newTemplatePrompt, NOW));
+    }
+
+    @Test
+    void explicitPriorityAboveCapIsKept() {
+        Prompt urgent = prompt(1L, "FILE", "bulk", NOW.minusHours(1));
+        urgent.setPriority(9);
+
+        assertThat(policy.effectivePriority(urgent, NOW)).isEqualTo(9);
+    }
+
+    @Test
+    void interactivePromptsGoBeforeAgedBacklog() {
+        List<Prompt> backlog = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            backlog.add(prompt(id, "FILE", "bulk", NOW.minusHours(24)));
+        }
+        FairShareQueue queue = new FairShareQueue(policy);
+        queue.reload(Map.of(
+                "bulk", backlog,
+                "user", List.of(prompt(100L, "WEB", "user", NOW))));
+
+        assertThat(queue.poll(NOW, Set.of()).getId()).isEqualTo(100L);
+        assertThat(queue.poll(NOW, Set.of()).getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void creatorsWithTheSamePriorityTakeTurns() {
+        FairShareQueue queue = new FairShareQueue(policy);
+        queue.reload(Map.of(
+                "alice", List.of(prompt(1L, "FILE", "alice", NOW), prompt(2L, "FILE", "alice", NOW),
+                        prompt(3L, "FILE", "alice", NOW)),
+                "bob", List.of(prompt(10L, "FILE", "bob", NOW), prompt(11L, "FILE", "bob", NOW))));
+
+        List<String> order = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            order.add(queue.poll(NOW, Set.of()).getCreatedBy());
+        }
+
+        assertThat(order).containsOnly("alice", "bob");
+        assertThat(order.subList(0, 2)).containsExactlyInAnyOrder("alice", "bob");
+        assertThat(order.subList(2, 4)).containsExactlyInAnyOrder("alice", "bob");
+    }
+
+    @Test
+    void excludedPromptsAreDropped() {
+        FairShareQueue queue = new FairShareQueue(policy);
+        queue.reload(Map.of("user", List.of(prompt(1L, "WEB", "user", NOW), prompt(2L, "WEB", "user", NOW))));
+
+        assertThat(queue.poll(NOW, Set.of(1L)).getId()).isEqualTo(2L);
+        assertThat(queue.poll(NOW, Set.of())).isNull();
+    }
+
+    private static Prompt prompt(Long id, String source, String createdBy, LocalDateTime createdAt) {
+        return Prompt.builder()
+                .id(id)
+                .source(source)
+                .createdBy(createdBy)
+                .createdAt(createdAt)
+                .status(Prompt.PromptStatus.PENDING)
+                .build();
+    }
+}
@@ -0,0 +1,109 @@
+package com.gemini.deepresearch.service;
+
+import com.gemini.deepresearch.exception.GeminiResponseException;
+import com.gemini.deepresearch.exception.GeminiUnavailableException;
+import com.gemini.deepresearch.exception.PromptDeadlineExceededException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PromptRetryPolicyTest {
+
+    private final PromptRetryPolicy policy = new PromptRetryPolicy(5, 10_000, 30_000, 600_000);
+
+    @Test
+    void serverErrorsAndTimeoutsAreTransient() {
+        assertThat(policy.classify(wrapped(HttpServerErrorException.create(
+                HttpStatus.SERVICE_UNAVAILABLE, "Unavailable", null, null, null))))
+                .isEqualTo(PromptRetryPolicy.FailureClass.TRANSIENT);
+        assertThat(policy.classify(wrapped(new ResourceAccessException("I/O error", new SocketTimeoutException()))))
+                .isEqualTo(PromptRetryPolicy.FailureClass.TRANSIENT);
+        assertThat(policy.classify(new PromptDeadlineExceededException("Deadline passed", null)))
+                .isEqualTo(PromptRetryPolicy.FailureClass.TRANSIENT);
+    }
+
+    @Test
+    void tooManyRequestsIsRateLimited() {
+        assertThat(policy.classify(wrapped(tooManyRequests(null))))
+                .isEqualTo(PromptRetryPolicy.FailureClass.RATE_LIMITED);
+    }
+
+    @Test
+    void clientErrorsAndUnusableResponsesArePermanent() {
+        assertThat(policy.classify(wrapped(HttpClientErrorException.create(
+                HttpStatus.BAD_REQUEST, "Bad Request", null, null, null))))
+                .isEqualTo(PromptRetryPolicy.FailureClass.PERMANENT);
+        assertThat(policy.classify(wrapped(new GeminiResponseException("No candidates"))))
+                .isEqualTo(PromptRetryPolicy.FailureClass.PERMANENT);
+    }
+
+    @Test
+    void unconfiguredGeminiIsPermanentAndNotRetried() {
+        PromptRetryPolicy.Decision decision = policy.decide(new GeminiUnavailableException("No API key"), 1);
+
+        assertThat(decision.failureClass()).isEqualTo(PromptRetryPolicy.FailureClass.PERMANENT);
+        assertThat(decision.isRetry()).isFalse();
+    }
+
+    @Test
+    void backoffDoublesWithEqualJitter() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(delayMs(policy.decide(wrapped(new ResourceAccessException("reset")), 1)))
+                    .isBetween(5_000L, 10_000L);
+            assertThat(delayMs(policy.decide(wrapped(new ResourceAccessException("reset")), 3)))
+                    .isBetween(20_000L, 40_000L);
+        }
+    }
+
+    @Test
+    void backoffIsCappedAtMaxDelay() {
+        PromptRetryPolicy patient = new PromptRetryPolicy(50, 10_000, 30_000, 600_000);
+
+        assertThat(delayMs(patient.decide(new ResourceAccessException("reset"), 40))).isBetween(300_000L, 600_000L);
+    }
+
+    @Test
+    void rateLimitedRetriesWaitForRetryAfter() {
+        PromptRetryPolicy.Decision decision = policy.decide(wrapped(tooManyRequests("120")), 1);
+
+        assertThat(decision.failureClass()).isEqualTo(PromptRetryPolicy.FailureClass.RATE_LIMITED);
+        assertThat(delayMs(decision)).isEqualTo(120_000L);
+    }
+
+    @Test
+    void retryAfterIsCappedAtMaxDelay() {
+        assertThat(delayMs(policy.decide(wrapped(tooManyRequests("86400")), 1))).isEqualTo(600_000L);
+    }
+
+    @Test
+    void lastAttemptIsNotRetried() {
+        assertThat(policy.decide(new ResourceAccessException("reset"), 5).isRetry()).isFalse();
+    }
+
+    private static long delayMs(PromptRetryPolicy.Decision decision) {
+        assertThat(decision.isRetry()).isTrue();
+        Duration delay = decision.retryDelay();
+        return delay.toMillis();
+    }
+
+    private static RuntimeException wrapped(Exception cause) {
+        // GeminiService wraps call failures, keeping the cause for classification
+        return new RuntimeException("Failed to get research result: " + cause.getMessage(), cause);
+    }
+
+    private static HttpClientErrorException tooManyRequests(String retryAfter) {
+        HttpHeaders headers = new HttpHeaders();
+        if (retryAfter != null) {
+            headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+        }
+        return HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, null, null);
+    }
+}
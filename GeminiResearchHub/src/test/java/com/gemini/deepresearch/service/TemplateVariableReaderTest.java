@@ -0,0 +1,105 @@
+package com.gemini.deepresearch.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TemplateVariableReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void csvRowsAreMappedToHeaderNames() throws IOException {
+        List<Map<String, String>> rows = readAll(TemplateVariableReader.Format.CSV,
+                "topic,aspect\nbatteries,cost\n\nsolar,efficiency\n");
+
+        assertThat(rows).containsExactly(
+                Map.of("topic", "batteries", "aspect", "cost"),
+                Map.of("topic", "solar", "aspect", "efficiency"));
+    }
+
+    @Test
+    void quotedCsvFieldsKeepCommasAndEscapedQuotes() throws IOException {
+        List<Map<String, String>> rows = readAll(TemplateVariableReader.Format.CSV,
+                "topic,aspect\n\"wind, offshore\",\"the \"\"levelized\"\" cost\"\n");
+
+        assertThat(rows).containsExactly(Map.of("topic", "wind, offshore", "aspect", "the \"levelized\" cost"));
+    }
+
+    @Test
+    void quotedCsvFieldsMaySpanLines() throws IOException {
+        TemplateVariableReader reader = reader(TemplateVariableReader.Format.CSV,
+                "topic,aspect\n\"first line\nsecond line\",cost\nsolar,efficiency\n");
+
+        assertThat(reader.next()).containsEntry("topic", "first line\nsecond line");
+        assertThat(reader.getLineNumber()).isEqualTo(3);
+        assertThat(reader.next()).containsEntry("topic", "solar");
+        assertThat(reader.getLineNumber()).isEqualTo(4);
+    }
+
+    @Test
+    void csvRowWithWrongFieldCountIsRejectedAtItsLine() throws IOException {
+        TemplateVariableReader reader = reader(TemplateVariableReader.Format.CSV,
+                "topic,aspect\nbatteries,cost\nsolar\n");
+
+        assertThat(reader.next()).containsEntry("topic", "batteries");
+        assertThatThrownBy(reader::next)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("1 fields but the header has 2");
+        assertThat(reader.getLineNumber()).isEqualTo(3);
+    }
+
+    @Test
+    void unterminatedQuotedFieldIsRejected() {
+        TemplateVariableReader reader = reader(TemplateVariableReader.Format.CSV,
+                "topic,aspect\n\"never closed,cost\n");
+
+        assertThatThrownBy(reader::next)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Unterminated quoted field");
+    }
+
+    @Test
+    void ndjsonValuesAreConvertedToStrings() throws IOException {
+        List<Map<String, String>> rows = readAll(TemplateVariableReader.Format.NDJSON,
+                "{\"topic\":\"batteries\",\"years\":5,\"extra\":null}\n\n{\"topic\":\"solar\"}\n");
+
+        assertThat(rows).containsExactly(
+                Map.of("topic", "batteries", "years", "5"),
+                Map.of("topic", "solar"));
+    }
+
+    @Test
+    void malformedNdjsonLineIsRejectedAtItsLine() throws IOException {
+        TemplateVariableReader reader = reader(TemplateVariableReader.Format.NDJSON,
+                "{\"topic\":\"batteries\"}\n{\"topic\":\n");
+
+        assertThat(reader.next()).containsEntry("topic", "batteries");
+        assertThatThrownBy(reader::next).isInstanceOf(IOException.class);
+        assertThat(reader.getLineNumber()).isEqualTo(2);
+    }
+
+    private TemplateVariableReader reader(TemplateVariableReader.Format format, String input) {
+        return new TemplateVariableReader(new BufferedReader(new StringReader(input)), format, objectMapper);
+    }
+
+    private List<Map<String, String>> readAll(TemplateVariableReader.Format format, String input) throws IOException {
+        List<Map<String, String>> rows = new ArrayList<>();
+        try (TemplateVariableReader reader = reader(format, input)) {
+            Map<String, String> row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
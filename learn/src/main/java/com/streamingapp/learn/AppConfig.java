@@ -1,22 +1,48 @@
 package com.streamingapp.learn;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.servlet.config.annotation.CorsRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.config.CorsRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.AdaptiveRecvByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
 
 @Configuration
-public class AppConfig implements WebMvcConfigurer {
+public class AppConfig implements WebFluxConfigurer {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public WebClient webClient(WebClient.Builder builder,
+            @Value("${streaming.relay.read-buffer.min:512}") int minReadBuffer,
+            @Value("${streaming.relay.read-buffer.initial:8192}") int initialReadBuffer,
+            @Value("${streaming.relay.read-buffer.max:65536}") int maxReadBuffer) {
+        // Reactor Netty client: upstream reads run on the shared event loop, not a thread per stream.
+        // Reads land in pooled direct buffers whose size adapts to how much each read actually returned,
+        // so trickling streams use small buffers and bulk streams large ones.
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                .option(ChannelOption.RCVBUF_ALLOCATOR,
+                        new AdaptiveRecvByteBufAllocator(minReadBuffer, initialReadBuffer, maxReadBuffer));
+        return builder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public NdjsonRecordHandler recordHandler() {
+        // Placeholder for real per-record work; define another NdjsonRecordHandler bean to replace it
+        return record -> {
+        };
     }
 
     @Bean
-    public WebMvcConfigurer corsConfigurer() {
-        return new WebMvcConfigurer() {
+    public WebFluxConfigurer corsConfigurer() {
+        return new WebFluxConfigurer() {
             @Override
             public void addCorsMappings(CorsRegistry registry) {
                 registry.addMapping("/**")
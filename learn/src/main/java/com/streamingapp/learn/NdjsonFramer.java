@@ -0,0 +1,119 @@
+package com.streamingapp.learn;
+
+import java.io.IOException;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Incrementally splits an NDJSON byte stream into records, whatever the chunk boundaries are.
+ * <p>
+ * Incoming chunks are appended to a single reusable byte array and scanned for newlines. Each
+ * complete line is parsed straight from that array and handed to the record handler, and only the
+ * trailing partial record is kept for the next chunk. Records are never decoded into intermediate
+ * strings, and a multi-byte UTF-8 character can never be split because the newline byte never occurs
+ * inside one. One framer is used per stream and is not thread-safe.
+ */
+public class NdjsonFramer {
+
+    private static final int INITIAL_CAPACITY = 8192;
+
+    private final ObjectReader reader;
+    private final NdjsonRecordHandler handler;
+    private final int maxRecordBytes;
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int length;
+    private long records;
+    private long malformedRecords;
+
+    public NdjsonFramer(ObjectReader reader, NdjsonRecordHandler handler, int maxRecordBytes) {
+        this.reader = reader;
+        this.handler = handler;
+        this.maxRecordBytes = maxRecordBytes;
+    }
+
+    /**
+     * Consumes a chunk and emits every record it completes. The chunk is not released.
+     */
+    public void feed(DataBuffer chunk) {
+        int readable = chunk.readableByteCount();
+        ensureCapacity(length + readable);
+        chunk.read(buffer, length, readable);
+
+        // The bytes carried over from the previous chunk hold no newline, so only scan the new ones
+        int scanFrom = length;
+        length += readable;
+
+        int recordStart = 0;
+        for (int i = scanFrom; i < length; i++) {
+            if (buffer[i] == '\n') {
+                emit(recordStart, i);
+                recordStart = i + 1;
+            }
+        }
+
+        length -= recordStart;
+        if (recordStart > 0 && length > 0) {
+            System.arraycopy(buffer, recordStart, buffer, 0, length);
+        }
+        if (length > maxRecordBytes) {
+            throw new IllegalStateException("NDJSON record exceeds " + maxRecordBytes + " bytes");
+        }
+    }
+
+    /**
+     * Emits a final record that was not terminated by a newline.
+     */
+    public void finish() {
+        if (length > 0) {
+            emit(0, length);
+            length = 0;
+        }
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public long getMalformedRecords() {
+        return malformedRecords;
+    }
+
+    private void emit(int start, int end) {
+        // Tolerate CRLF line endings and skip blank lines
+        while (end > start && isWhitespace(buffer[end - 1])) {
+            end--;
+        }
+        while (start < end && isWhitespace(buffer[start])) {
+            start++;
+        }
+        if (start == end) {
+            return;
+        }
+
+        JsonNode record;
+        try {
+            record = reader.readTree(buffer, start, end - start);
+        } catch (IOException e) {
+            malformedRecords++;
+            return;
+        }
+        records++;
+        handler.onRecord(record);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > buffer.length) {
+            byte[] grown = new byte[Math.max(required, buffer.length * 2)];
+            System.arraycopy(buffer, 0, grown, 0, length);
+            buffer = grown;
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+}
@@ -0,0 +1,15 @@
+package com.streamingapp.learn;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Receives each complete record parsed from an NDJSON stream.
+ * <p>
+ * Called on the event loop thread that read the data, once per record and in stream order,
+ * so implementations must not block. Define a bean of this type to replace the default handler.
+ */
+@FunctionalInterface
+public interface NdjsonRecordHandler {
+
+    void onRecord(JsonNode record);
+}
@@ -0,0 +1,270 @@
+package com.streamingapp.learn;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+/**
+ * Shares one upstream connection per source among all concurrent subscribers.
+ * <p>
+ * The first subscriber to a source opens the upstream. Later subscribers join the same stream. The
+ * upstream is cancelled once its last subscriber leaves, and the next subscriber after that opens a
+ * fresh one. Upstream chunks are not copied: every subscriber gets its own retained slice of each pooled
+ * buffer, with its own read position, and the upstream's reference is released once the chunk has been
+ * handed to every subscriber.
+ * <p>
+ * Subscribers only ever start at a record boundary: a late joiner skips chunks until one starts a new
+ * NDJSON record, and replay (replay-chunks, off by default) starts at the oldest retained chunk that
+ * begins a record.
+ * <p>
+ * Every subscriber gets its own bounded queue of max-lag-chunks chunks, so one slow client never holds
+ * back the shared upstream. When that queue overflows, the subscriber either skips ahead to the next
+ * record boundary (DROP) or is disconnected (DISCONNECT).
+ */
+@Component
+public class StreamMultiplexer {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamMultiplexer.class);
+
+    public enum SlowSubscriberPolicy {
+        DROP,
+        DISCONNECT
+    }
+
+    private final Map<String, SharedUpstream> streams = new ConcurrentHashMap<>();
+
+    private final LongAdder upstreamsOpened = new LongAdder();
+    private final LongAdder subscriptions = new LongAdder();
+    private final LongAdder chunksReceived = new LongAdder();
+    private final LongAdder chunksDropped = new LongAdder();
+    private final LongAdder subscribersDisconnected = new LongAdder();
+    private final AtomicInteger activeSubscribers = new AtomicInteger();
+
+    @Value("${streaming.mux.replay-chunks:0}")
+    private int replayChunks;
+
+    @Value("${streaming.mux.max-lag-chunks:256}")
+    private int maxLagChunks;
+
+    @Value("${streaming.mux.slow-subscriber-policy:DISCONNECT}")
+    private SlowSubscriberPolicy slowSubscriberPolicy;
+
+    public Flux<DataBuffer> subscribe(String source, Supplier<Flux<DataBuffer>> upstream) {
+        return Flux.defer(() -> {
+            while (true) {
+                SharedUpstream shared = streams.computeIfAbsent(source, key -> new SharedUpstream(key, upstream));
+                Flux<DataBuffer> joined = shared.join();
+                if (joined != null) {
+                    return joined;
+                }
+                // Closed between lookup and join: open a fresh upstream
+                streams.remove(source, shared);
+            }
+        })
+                .doOnSubscribe(subscription -> {
+                    subscriptions.increment();
+                    activeSubscribers.incrementAndGet();
+                })
+                .doFinally(signal -> activeSubscribers.decrementAndGet());
+    }
+
+    public Map<String, Object> getStats() {
+        int activeUpstreams = streams.size();
+        int subscribers = activeSubscribers.get();
+        long opened = upstreamsOpened.sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("activeUpstreams", activeUpstreams);
+        stats.put("activeSubscribers", subscribers);
+        stats.put("fanOutRatio", activeUpstreams == 0 ? 0.0 : (double) subscribers / activeUpstreams);
+        stats.put("upstreamsOpened", opened);
+        stats.put("subscriptions", subscriptions.sum());
+        stats.put("lifetimeFanOutRatio", opened == 0 ? 0.0 : (double) subscriptions.sum() / opened);
+        stats.put("chunksReceived", chunksReceived.sum());
+        stats.put("chunksDropped", chunksDropped.sum());
+        stats.put("subscribersDisconnected", subscribersDisconnected.sum());
+        return stats;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static DataBuffer retainedView(DataBuffer buffer) {
+        // A slice shares the (pooled) memory but has its own read position, since writing a buffer consumes it
+        return buffer.retainedSlice(buffer.readPosition(), buffer.readableByteCount());
+    }
+
+    private static boolean endsRecord(DataBuffer buffer) {
+        int length = buffer.readableByteCount();
+        return length > 0 && buffer.getByte(buffer.readPosition() + length - 1) == '\n';
+    }
+
+    /**
+     * One upstream connection and the subscribers sharing it. All state changes and emissions happen
+     * under the instance lock, so each subscriber's sink is only ever emitted to serially.
+     */
+    private final class SharedUpstream {
+
+        private final String source;
+        private final Supplier<Flux<DataBuffer>> upstream;
+        private final List<Member> members = new ArrayList<>();
+        private final Deque<Chunk> replay = new ArrayDeque<>();
+        private Disposable connection;
+        private boolean previousEndedRecord = true;
+        private boolean closed;
+
+        SharedUpstream(String source, Supplier<Flux<DataBuffer>> upstream) {
+            this.source = source;
+            this.upstream = upstream;
+        }
+
+        synchronized Flux<DataBuffer> join() {
+            if (closed) {
+                return null;
+            }
+
+            Member member = new Member(Sinks.many().unicast()
+                    .onBackpressureBuffer(Queues.<DataBuffer>get(Math.max(1, maxLagChunks)).get()));
+            boolean replaying = false;
+            for (Chunk chunk : replay) {
+                replaying |= chunk.startsRecord();
+                if (replaying) {
+                    member.aligned = true;
+                    emit(member, chunk.buffer());
+                }
+            }
+            members.add(member);
+
+            if (connection == null) {
+                log.debug("Opening shared upstream for {}", source);
+                upstreamsOpened.increment();
+                connection = upstream.get().subscribe(this::onChunk, this::onError, this::onComplete);
+            }
+            return member.sink.asFlux().doFinally(signal -> leave(member));
+        }
+
+        private synchronized void onChunk(DataBuffer buffer) {
+            try {
+                chunksReceived.increment();
+                boolean startsRecord = previousEndedRecord;
+                previousEndedRecord = endsRecord(buffer);
+                if (closed) {
+                    return;
+                }
+
+                // Emitting may run a subscriber that leaves, so iterate over a snapshot
+                for (Member member : new ArrayList<>(members)) {
+                    if (!member.aligned && !startsRecord) {
+                        continue;
+                    }
+                    member.aligned = true;
+                    emit(member, buffer);
+                }
+
+                if (replayChunks > 0 && !closed) {
+                    replay.addLast(new Chunk(retainedView(buffer), startsRecord));
+                    if (replay.size() > Math.min(replayChunks, maxLagChunks)) {
+                        DataBufferUtils.release(replay.removeFirst().buffer());
+                    }
+                }
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+
+        private void emit(Member member, DataBuffer buffer) {
+            DataBuffer view = retainedView(buffer);
+            Sinks.EmitResult result = member.sink.tryEmitNext(view);
+            if (result.isSuccess()) {
+                return;
+            }
+
+            DataBufferUtils.release(view);
+            if (result != Sinks.EmitResult.FAIL_OVERFLOW) {
+                // Cancelled or terminated; its doFinally removes it
+                return;
+            }
+            if (slowSubscriberPolicy == SlowSubscriberPolicy.DROP) {
+                // The rest of the current record is skipped, so the subscriber resumes on a record boundary
+                chunksDropped.increment();
+                member.aligned = false;
+            } else {
+                subscribersDisconnected.increment();
+                log.debug("Disconnecting slow subscriber from {}", source);
+                members.remove(member);
+                member.sink.tryEmitError(new IllegalStateException(
+                        "Subscriber fell more than " + maxLagChunks + " chunks behind " + source));
+                closeIfUnused();
+            }
+        }
+
+        private synchronized void leave(Member member) {
+            members.remove(member);
+            closeIfUnused();
+        }
+
+        private void closeIfUnused() {
+            if (members.isEmpty()) {
+                close();
+            }
+        }
+
+        private synchronized void onError(Throwable error) {
+            List<Member> remaining = new ArrayList<>(members);
+            close();
+            remaining.forEach(member -> member.sink.tryEmitError(error));
+        }
+
+        private synchronized void onComplete() {
+            List<Member> remaining = new ArrayList<>(members);
+            close();
+            remaining.forEach(member -> member.sink.tryEmitComplete());
+        }
+
+        // Completed, failed or abandoned by its last subscriber: let the next subscriber reconnect
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            members.clear();
+            streams.remove(source, this);
+            if (connection != null) {
+                connection.dispose();
+            }
+            replay.forEach(chunk -> DataBufferUtils.release(chunk.buffer()));
+            replay.clear();
+        }
+    }
+
+    private static final class Member {
+
+        private final Sinks.Many<DataBuffer> sink;
+        // Whether the subscriber is at a record boundary and may receive the next chunk
+        private boolean aligned;
+
+        Member(Sinks.Many<DataBuffer> sink) {
+            this.sink = sink;
+        }
+    }
+
+    private record Chunk(DataBuffer buffer, boolean startsRecord) {
+    }
+}
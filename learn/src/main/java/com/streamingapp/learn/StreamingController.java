@@ -1,14 +1,19 @@
 package com.streamingapp.learn;
 
-import java.io.IOException;
-import java.io.OutputStream;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.server.ResponseStatusException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @RestController
 public class StreamingController {
@@ -16,34 +21,39 @@ public class StreamingController {
     @Autowired
     private StreamingService streamingService;
 
-    @GetMapping(value = "/stream-json", produces = MediaType.APPLICATION_JSON_VALUE)
-    public StreamingResponseBody streamJson() {
-        return new StreamingResponseBody() {
-            @Override
-            public void writeTo(OutputStream outputStream) throws IOException {
-                try {
-                    for (int i = 1; i <= 5; i++) {
-                        String jsonChunk = "{\"data\":\"Chunk " + i + "\"}\n";
-                        outputStream.write(jsonChunk.getBytes());
-                        outputStream.flush();
-                        TimeUnit.SECONDS.sleep(1); // Simulate a delay for each chunk
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            }
-        };
+    @Autowired
+    private StreamMultiplexer streamMultiplexer;
+
+    @Autowired
+    private SyntheticStreamSource syntheticStreamSource;
+
+    @GetMapping(value = "/stream-json", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<DataBuffer> streamJson(@RequestParam(required = false) Integer count,
+            @RequestParam(required = false) Integer chunkBytes,
+            @RequestParam(required = false) Double rate,
+            @RequestParam(required = false) Long jitterMs) {
+        try {
+            return syntheticStreamSource.stream(count, chunkBytes, rate, jitterMs);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @GetMapping("/consume-stream")
-    public StreamingResponseBody consumeStream() {
-        return streamingService.consumeStream();
+    public Mono<Void> consumeStream(ServerHttpResponse response) {
+        response.getHeaders().setContentType(MediaType.APPLICATION_NDJSON);
+        return response.writeAndFlushWith(streamingService.consumeStream());
     }
 
     @GetMapping("/consume-streamv2")
-    public String consumeAndProcessStream() {
-        streamingService.consumeAndProcessStream();
-        // Return a message or processed data
-        return "Streaming request completed. Check logs for real-time chunks.";
+    public Mono<String> consumeAndProcessStream() {
+        return streamingService.consumeAndProcessStream()
+                .map(records -> "Streaming request completed. Processed " + records
+                        + " records, check logs for throughput.");
+    }
+
+    @GetMapping("/stream-stats")
+    public Map<String, Object> streamStats() {
+        return streamMultiplexer.getStats();
     }
 }
@@ -1,83 +1,137 @@
 package com.streamingapp.learn;
 
-import java.io.InputStream;
-import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RequestCallback;
-import org.springframework.web.client.ResponseExtractor;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Service
 public class StreamingService {
 
+    // Lifecycle messages are logged at debug: these paths run on Netty event-loop threads
+    private static final Logger log = LoggerFactory.getLogger(StreamingService.class);
+
+    @Autowired
+    private WebClient webClient;
+
+    @Autowired
+    private StreamMultiplexer streamMultiplexer;
+
+    @Autowired
+    private NdjsonRecordHandler recordHandler;
+
     @Autowired
-    private RestTemplate restTemplate;
-
-    public StreamingResponseBody consumeStream() {
-        System.out.println("consumeStream");
-        return outputStream -> {
-            RequestCallback requestCallback = request -> {
-                request.getHeaders().set(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
-                System.out.println("Request initiated to consume streaming response.");
-            };
-
-            ResponseExtractor<Void> responseExtractor = response -> {
-                InputStream inputStream = response.getBody();
-                byte[] buffer = new byte[1024];
-                int bytesRead;
-
-                // Read from the input stream and write to the output stream in real-time
-                while ((bytesRead = inputStream.read(buffer)) != -1) {
-                    System.out.println("Received a chunk of size: " + bytesRead);
-                    String chunk = new String(buffer, 0, bytesRead);
-                    System.out.println("Chunk content: " + chunk);
-
-                    // Write and flush the chunk to the output stream
-                    outputStream.write(buffer, 0, bytesRead);
-                    outputStream.flush(); // Ensure the data is flushed immediately
-                }
-                System.out.println("Streaming completed.");
-                return null;
-            };
-
-            // Make the API call and stream the response
-            restTemplate.execute(URI.create("http://localhost:8090/stream-json"), HttpMethod.GET, requestCallback,
-                    responseExtractor);
-        };
+    private ObjectMapper objectMapper;
+
+    @Value("${streaming.upstream-url:http://localhost:8090/stream-json}")
+    private String upstreamUrl;
+
+    @Value("${streaming.mux.enabled:true}")
+    private boolean multiplexEnabled;
+
+    @Value("${streaming.relay.flush-max-chunks:16}")
+    private int flushMaxChunks;
+
+    @Value("${streaming.relay.flush-max-latency-ms:10}")
+    private long flushMaxLatencyMs;
+
+    @Value("${streaming.ndjson.max-record-bytes:1048576}")
+    private int maxRecordBytes;
+
+    @Value("${streaming.chunk-log.enabled:false}")
+    private boolean chunkLogEnabled;
+
+    @Value("${streaming.chunk-log.sample-every:100}")
+    private long chunkLogSampleEvery;
+
+    @Value("${streaming.chunk-log.content:false}")
+    private boolean chunkLogContent;
+
+    private final AtomicLong chunksRelayed = new AtomicLong();
+
+    /**
+     * Relays the upstream stream as groups of buffers, each of which is written and then flushed once.
+     * Upstream buffers are forwarded as-is, without decoding or copying, and Netty only reads more from
+     * the upstream socket once the client has accepted what was already forwarded (backpressure).
+     * A group is closed once it holds flushMaxChunks buffers or flushMaxLatencyMs after its first buffer
+     * arrived, so bursts share one flush while a trickling stream is still flushed promptly.
+     * With multiplexing enabled, concurrent clients share one upstream connection through the
+     * StreamMultiplexer, and every client gets its own retained slice of each pooled buffer, not a copy.
+     */
+    public Flux<Flux<DataBuffer>> consumeStream() {
+        log.debug("consumeStream");
+        Flux<DataBuffer> source = multiplexEnabled
+                ? streamMultiplexer.subscribe(upstreamUrl, this::openUpstream)
+                : openUpstream();
+        return source
+                .doOnNext(this::logChunk)
+                .bufferTimeout(flushMaxChunks, Duration.ofMillis(flushMaxLatencyMs), true)
+                .<Flux<DataBuffer>>map(Flux::fromIterable)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .doOnComplete(() -> log.debug("Streaming completed."));
+    }
+
+    /**
+     * Consumes the upstream as NDJSON and feeds every complete record to the record handler.
+     * Emits the number of records processed once the stream has completed.
+     */
+    public Mono<Long> consumeAndProcessStream() {
+        log.debug("consumeAndProcessStream");
+        return Mono.defer(() -> {
+            NdjsonFramer framer = new NdjsonFramer(objectMapper.reader(), recordHandler, maxRecordBytes);
+            long start = System.nanoTime();
+
+            return openUpstream()
+                    .doOnNext(buffer -> {
+                        try {
+                            logChunk(buffer);
+                            framer.feed(buffer);
+                        } finally {
+                            DataBufferUtils.release(buffer);
+                        }
+                    })
+                    .then(Mono.fromCallable(() -> {
+                        framer.finish();
+                        double seconds = Math.max(System.nanoTime() - start, 1) / 1_000_000_000.0;
+                        if (log.isDebugEnabled()) {
+                            log.debug(String.format("Streaming completed. Processed %d records (%d malformed) in %.2f s, %.0f records/sec",
+                                    framer.getRecords(), framer.getMalformedRecords(), seconds, framer.getRecords() / seconds));
+                        }
+                        return framer.getRecords();
+                    }));
+        });
+    }
+
+    private void logChunk(DataBuffer buffer) {
+        if (!chunkLogEnabled || chunksRelayed.incrementAndGet() % Math.max(1, chunkLogSampleEvery) != 0) {
+            return;
+        }
+        log.info("Received a chunk of size: {}", buffer.readableByteCount());
+        if (chunkLogContent) {
+            log.info("Chunk content: {}", buffer.toString(StandardCharsets.UTF_8));
+        }
     }
 
-    public void consumeAndProcessStream() {
-        System.out.println("consumeAndProcessStream");
-        RequestCallback requestCallback = request -> {
-            request.getHeaders().set("Accept", "application/json");
-            System.out.println("Request initiated to consume streaming response.");
-        };
-
-        ResponseExtractor<Void> responseExtractor = response -> {
-            InputStream inputStream = response.getBody();
-            byte[] buffer = new byte[1024];
-            int bytesRead;
-
-            // Read the stream chunk by chunk
-            while ((bytesRead = inputStream.read(buffer)) != -1) {
-                String chunk = new String(buffer, 0, bytesRead, StandardCharsets.UTF_8);
-                System.out.println("Received a chunk of size: " + bytesRead);
-                System.out.println("Chunk content: " + chunk);
-
-                // Simulate some processing on the chunk here, if needed
-            }
-            System.out.println("Streaming completed.");
-            return null;
-        };
-
-        // Make the API call and stream the response
-        restTemplate.execute("http://localhost:8090/stream-json", HttpMethod.GET, requestCallback, responseExtractor);
+    private Flux<DataBuffer> openUpstream() {
+        return webClient.get()
+                .uri(upstreamUrl)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(DataBuffer.class)
+                .doOnSubscribe(subscription -> log.debug("Request initiated to consume streaming response."));
     }
 }
@@ -0,0 +1,87 @@
+package com.streamingapp.learn;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Generates a synthetic NDJSON stream for use as a local upstream when load-testing the relay endpoints.
+ * <p>
+ * Chunks are paced by timers on the shared Reactor scheduler, so an idle stream parks no thread and a
+ * single node can serve thousands of concurrent streams. Each chunk is one NDJSON record, padded to
+ * chunkBytes when that is set. The rate is in chunks per second, 0 means as fast as the client reads,
+ * and each delay gets up to jitterMs of extra random latency.
+ */
+@Component
+public class SyntheticStreamSource {
+
+    private static final int MAX_CHUNK_BYTES = 1024 * 1024;
+
+    @Value("${streaming.synthetic.count:5}")
+    private int defaultCount;
+
+    @Value("${streaming.synthetic.chunk-bytes:0}")
+    private int defaultChunkBytes;
+
+    @Value("${streaming.synthetic.rate-per-second:1}")
+    private double defaultRatePerSecond;
+
+    @Value("${streaming.synthetic.jitter-ms:0}")
+    private long defaultJitterMs;
+
+    public Flux<DataBuffer> stream(Integer count, Integer chunkBytes, Double ratePerSecond, Long jitterMs) {
+        int chunks = count != null ? count : defaultCount;
+        int size = chunkBytes != null ? chunkBytes : defaultChunkBytes;
+        double rate = ratePerSecond != null ? ratePerSecond : defaultRatePerSecond;
+        long jitter = jitterMs != null ? jitterMs : defaultJitterMs;
+
+        if (chunks < 0 || size < 0 || size > MAX_CHUNK_BYTES || rate < 0 || jitter < 0) {
+            throw new IllegalArgumentException("count, chunkBytes, rate and jitterMs must be non-negative and chunkBytes at most "
+                    + MAX_CHUNK_BYTES);
+        }
+
+        byte[] padding = new byte[size];
+        Arrays.fill(padding, (byte) 'x');
+
+        Flux<Integer> sequence = Flux.range(1, chunks);
+        if (rate > 0 || jitter > 0) {
+            long intervalNanos = rate > 0 ? (long) (1_000_000_000L / rate) : 0;
+            // The first chunk goes out immediately, each later one after the interval plus jitter
+            sequence = sequence.concatMap(i -> i == 1 ? Mono.just(i)
+                    : Mono.just(i).delayElement(nextDelay(intervalNanos, jitter)));
+        }
+        return sequence.map(i -> DefaultDataBufferFactory.sharedInstance.wrap(chunk(i, padding)));
+    }
+
+    private Duration nextDelay(long intervalNanos, long jitterMs) {
+        long jitterNanos = jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs * 1_000_000L + 1) : 0;
+        return Duration.ofNanos(intervalNanos + jitterNanos);
+    }
+
+    private byte[] chunk(int sequence, byte[] padding) {
+        byte[] prefix = ("{\"data\":\"Chunk " + sequence).getBytes(StandardCharsets.US_ASCII);
+        byte[] suffix = "\"}\n".getBytes(StandardCharsets.US_ASCII);
+
+        // Pad the data field so the whole record, newline included, is padding.length bytes when possible
+        int pad = Math.max(0, padding.length - prefix.length - suffix.length - 1);
+        byte[] chunk = new byte[prefix.length + (pad > 0 ? pad + 1 : 0) + suffix.length];
+        System.arraycopy(prefix, 0, chunk, 0, prefix.length);
+        int offset = prefix.length;
+        if (pad > 0) {
+            chunk[offset++] = ' ';
+            System.arraycopy(padding, 0, chunk, offset, pad);
+            offset += pad;
+        }
+        System.arraycopy(suffix, 0, chunk, offset, suffix.length);
+        return chunk;
+    }
+}
@@ -0,0 +1,104 @@
+package com.streamingapp.learn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class NdjsonFramerTests {
+
+	private final List<JsonNode> records = new ArrayList<>();
+
+	private final NdjsonFramer framer = new NdjsonFramer(new ObjectMapper().reader(), records::add, 64);
+
+	@Test
+	void recordSplitAcrossChunks() {
+		feed("{\"data\":\"Chu");
+		feed("nk 1\"}\n{\"data\"");
+		feed(":\"Chunk 2\"}\n");
+
+		assertThat(data()).containsExactly("Chunk 1", "Chunk 2");
+	}
+
+	@Test
+	void multiByteCharacterSplitAcrossChunks() {
+		byte[] bytes = "{\"data\":\"café €\"}\n".getBytes(StandardCharsets.UTF_8);
+		// Split inside the two-byte é and inside the three-byte €
+		int insideE = indexOf(bytes, (byte) 0xC3) + 1;
+		int insideEuro = indexOf(bytes, (byte) 0xE2) + 2;
+		feed(Arrays.copyOfRange(bytes, 0, insideE));
+		feed(Arrays.copyOfRange(bytes, insideE, insideEuro));
+		feed(Arrays.copyOfRange(bytes, insideEuro, bytes.length));
+
+		assertThat(data()).containsExactly("café €");
+	}
+
+	@Test
+	void crlfLineEndingsAndBlankLines() {
+		feed("{\"data\":\"a\"}\r\n\r\n  \n{\"data\":\"b\"}\r");
+		feed("\n\n");
+
+		assertThat(data()).containsExactly("a", "b");
+		assertThat(framer.getMalformedRecords()).isZero();
+	}
+
+	@Test
+	void trailingRecordWithoutNewlineIsEmittedByFinish() {
+		feed("{\"data\":\"a\"}\n{\"data\":\"b\"}");
+		assertThat(data()).containsExactly("a");
+
+		framer.finish();
+
+		assertThat(data()).containsExactly("a", "b");
+		assertThat(framer.getRecords()).isEqualTo(2);
+	}
+
+	@Test
+	void malformedRecordIsCountedAndSkipped() {
+		feed("{\"data\":\"a\"}\n{not json\n{\"data\":\"b\"}\n");
+
+		assertThat(data()).containsExactly("a", "b");
+		assertThat(framer.getMalformedRecords()).isEqualTo(1);
+	}
+
+	@Test
+	void recordOverSizeLimitIsRejected() {
+		feed("{\"data\":\"a\"}\n");
+
+		assertThatThrownBy(() -> feed("{\"data\":\"" + "x".repeat(100)))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("64 bytes");
+		assertThat(data()).containsExactly("a");
+	}
+
+	private void feed(String chunk) {
+		feed(chunk.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void feed(byte[] chunk) {
+		framer.feed(DefaultDataBufferFactory.sharedInstance.wrap(chunk));
+	}
+
+	private List<String> data() {
+		return records.stream().map(record -> record.get("data").asText()).toList();
+	}
+
+	private static int indexOf(byte[] bytes, byte value) {
+		for (int i = 0; i < bytes.length; i++) {
+			if (bytes[i] == value) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("Byte not found");
+	}
+
+}